@@ -0,0 +1,55 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.JSON;
+import core.framework.api.util.json.UpdateProductRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare local cache hit with json bytes and object mode, run with "-prof gc" to see allocation rate
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class CacheBenchmark {
+    private static final String JSON_STRING = "{\"request_id\":\"d2bbf14c-aff0-402d-80a6-ed8a672ab231\",\"product\":{\"vendor_number\":\"V00090\",\"vendor_sku\":\"ELP-430205-C\",\"listing_status\":\"NOT_LIVE\",\"parent_vendor_sku\":\"ELP-430205-C\",\"name\":null,\"description\":null,\"brand_name\":null,\"category_id\":null,\"external_product_id_type\":null,\"external_product_id\":null,\"type\":null,\"unit_cost\":null,\"list_price\":null,\"map_price\":null,\"standard_price\":null,\"sale_price\":null,\"sale_start_date\":null,\"sale_end_date\":null,\"weight\":null,\"harmonized_code\":null,\"on_hold\":null,\"attributes\":{},\"eligible_country_codes\":null,\"images\":[],\"inventories\":[{\"warehouse_code\":\"V00090A\",\"quantity\":0}]},\"requested_by\":\"channel-advisor\",\"result_queue\":\"channel-advisor-service-queue\"}";
+    private CacheImpl<UpdateProductRequest> bytesCache;
+    private CacheImpl<UpdateProductRequest> objectCache;
+
+    @Setup
+    public void setup() {
+        UpdateProductRequest value = JSON.fromJSON(UpdateProductRequest.class, JSON_STRING);
+
+        bytesCache = new CacheImpl<>("bytes", UpdateProductRequest.class, Duration.ofHours(1), new LocalCacheStore());
+        bytesCache.put("key", value);
+
+        LocalCacheStore objectStore = new LocalCacheStore();
+        objectCache = new CacheImpl<>("object", UpdateProductRequest.class, Duration.ofHours(1), objectStore);
+        objectCache.objectStore = objectStore;
+        objectCache.put("key", value);
+    }
+
+    @Benchmark
+    public UpdateProductRequest bytesMode() {
+        return bytesCache.get("key", key -> null);
+    }
+
+    @Benchmark
+    public UpdateProductRequest objectMode() {
+        return objectCache.get("key", key -> null);
+    }
+}
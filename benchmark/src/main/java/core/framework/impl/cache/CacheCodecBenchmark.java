@@ -0,0 +1,77 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.JSON;
+import core.framework.api.util.json.UpdateProductRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare encode/decode of cache value with json and binary codec
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class CacheCodecBenchmark {
+    private static final String JSON_STRING = "{\"request_id\":\"d2bbf14c-aff0-402d-80a6-ed8a672ab231\",\"product\":{\"vendor_number\":\"V00090\",\"vendor_sku\":\"ELP-430205-C\",\"listing_status\":\"NOT_LIVE\",\"parent_vendor_sku\":\"ELP-430205-C\",\"name\":null,\"description\":null,\"brand_name\":null,\"category_id\":null,\"external_product_id_type\":null,\"external_product_id\":null,\"type\":null,\"unit_cost\":null,\"list_price\":null,\"map_price\":null,\"standard_price\":null,\"sale_price\":null,\"sale_start_date\":null,\"sale_end_date\":null,\"weight\":null,\"harmonized_code\":null,\"on_hold\":null,\"attributes\":{},\"eligible_country_codes\":null,\"images\":[],\"inventories\":[{\"warehouse_code\":\"V00090A\",\"quantity\":0}]},\"requested_by\":\"channel-advisor\",\"result_queue\":\"channel-advisor-service-queue\"}";
+    private UpdateProductRequest value;
+    private JSONCacheCodec<UpdateProductRequest> jsonCodec;
+    private BinaryCacheCodec<UpdateProductRequest> binaryCodec;
+    private BinaryCacheCodec<UpdateProductRequest> compressedBinaryCodec;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+    private byte[] compressedBinaryBytes;
+
+    @Setup
+    public void setup() {
+        value = JSON.fromJSON(UpdateProductRequest.class, JSON_STRING);
+        jsonCodec = new JSONCacheCodec<>(UpdateProductRequest.class);
+        binaryCodec = new BinaryCacheCodec<>(UpdateProductRequest.class, 0);
+        compressedBinaryCodec = new BinaryCacheCodec<>(UpdateProductRequest.class, 32);
+        jsonBytes = jsonCodec.encode(value);
+        binaryBytes = binaryCodec.encode(value);
+        compressedBinaryBytes = compressedBinaryCodec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeJSON() {
+        return jsonCodec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return binaryCodec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeCompressedBinary() {
+        return compressedBinaryCodec.encode(value);
+    }
+
+    @Benchmark
+    public UpdateProductRequest decodeJSON() {
+        return jsonCodec.decode(jsonBytes, 0, jsonBytes.length);
+    }
+
+    @Benchmark
+    public UpdateProductRequest decodeBinary() {
+        return binaryCodec.decode(binaryBytes, 0, binaryBytes.length);
+    }
+
+    @Benchmark
+    public UpdateProductRequest decodeCompressedBinary() {
+        return compressedBinaryCodec.decode(compressedBinaryBytes, 0, compressedBinaryBytes.length);
+    }
+}
@@ -0,0 +1,128 @@
+package core.framework.impl.db;
+
+import core.framework.api.util.ASCII;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * map 10k rows from in memory hsqldb table, compare generated row mapper (indexes resolved once per result set)
+ * with previous mapping by column name (lowercase and hash lookup per column per row), and plain jdbc reading by column label
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class RowMapperBenchmark {
+    private static final String URL = "jdbc:hsqldb:mem:benchmark";
+    private static final String SQL = "SELECT id, string_field, long_field, double_field, boolean_field, date_time_field FROM row_mapper";
+    private static final int ROWS = 10000;
+    private DatabaseImpl database;
+    private Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        database = new DatabaseImpl();
+        database.url(URL);
+        database.execute("CREATE TABLE row_mapper (id INT PRIMARY KEY, string_field VARCHAR(50), long_field BIGINT, double_field DOUBLE, boolean_field BOOLEAN, date_time_field TIMESTAMP)");
+        List<Object[]> params = Lists.newArrayList();
+        for (int i = 0; i < ROWS; i++) {
+            params.add(new Object[]{i, "string-" + i, (long) i, i * 1.5, i % 2 == 0, LocalDateTime.now()});
+        }
+        database.operation.batchUpdate("INSERT INTO row_mapper (id, string_field, long_field, double_field, boolean_field, date_time_field) VALUES (?, ?, ?, ?, ?, ?)", params);
+        database.tooManyRowsReturnedThreshold = ROWS + 1;
+        database.view(RowMapperView.class);
+        connection = DriverManager.getConnection(URL);
+    }
+
+    @TearDown
+    public void cleanup() throws SQLException {
+        connection.close();
+        database.execute("DROP TABLE row_mapper");
+        database.close();
+    }
+
+    @Benchmark
+    public List<RowMapperView> generatedMapper() {
+        return database.select(SQL, RowMapperView.class);
+    }
+
+    @Benchmark
+    public List<RowMapperView> jdbcByColumnLabel() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            List<RowMapperView> results = Lists.newArrayList();
+            while (resultSet.next()) {
+                RowMapperView view = new RowMapperView();
+                view.id = resultSet.getInt("id");
+                view.stringField = resultSet.getString("string_field");
+                view.longField = resultSet.getLong("long_field");
+                view.doubleField = resultSet.getDouble("double_field");
+                view.booleanField = resultSet.getBoolean("boolean_field");
+                view.dateTimeField = resultSet.getTimestamp("date_time_field").toLocalDateTime();
+                results.add(view);
+            }
+            return results;
+        }
+    }
+
+    @Benchmark
+    public List<RowMapperView> wrapperByColumnName() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SQL);
+             ResultSet resultSet = statement.executeQuery()) {
+            ResultSetWrapper wrapper = new ResultSetWrapper(resultSet);
+            Map<String, Integer> columnIndex = columnIndex(resultSet);
+            List<RowMapperView> results = Lists.newArrayList();
+            while (resultSet.next()) {
+                RowMapperView view = new RowMapperView();
+                view.id = wrapper.getInt(index(columnIndex, "id"));
+                view.stringField = wrapper.getString(index(columnIndex, "string_field"));
+                view.longField = wrapper.getLong(index(columnIndex, "long_field"));
+                view.doubleField = wrapper.getDouble(index(columnIndex, "double_field"));
+                view.booleanField = wrapper.getBoolean(index(columnIndex, "boolean_field"));
+                view.dateTimeField = wrapper.getLocalDateTime(index(columnIndex, "date_time_field"));
+                results.add(view);
+            }
+            return results;
+        }
+    }
+
+    // same as previous ResultSetWrapper name based getters
+    private int index(Map<String, Integer> columnIndex, String column) {
+        Integer index = columnIndex.get(ASCII.toLowerCase(column));
+        return index == null ? 0 : index;
+    }
+
+    private Map<String, Integer> columnIndex(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData meta = resultSet.getMetaData();
+        int count = meta.getColumnCount();
+        Map<String, Integer> index = Maps.newHashMapWithExpectedSize(count);
+        for (int i = 1; i < count + 1; i++) {
+            index.put(ASCII.toLowerCase(meta.getColumnLabel(i)), i);
+        }
+        return index;
+    }
+}
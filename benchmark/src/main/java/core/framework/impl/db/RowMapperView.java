@@ -0,0 +1,28 @@
+package core.framework.impl.db;
+
+import core.framework.api.db.Column;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author neo
+ */
+public class RowMapperView {
+    @Column(name = "id")
+    public Integer id;
+
+    @Column(name = "string_field")
+    public String stringField;
+
+    @Column(name = "long_field")
+    public Long longField;
+
+    @Column(name = "double_field")
+    public Double doubleField;
+
+    @Column(name = "boolean_field")
+    public Boolean booleanField;
+
+    @Column(name = "date_time_field")
+    public LocalDateTime dateTimeField;
+}
@@ -0,0 +1,57 @@
+package core.framework.impl.log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * capture trace of typical request with 200 debug events which is not flushed, run with "-prof gc" to compare allocation rate per op
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ActionLogBenchmark {
+    private LogManager logManager;
+    private LoggerImpl logger;
+    private LogManager sampledLogManager;
+    private LoggerImpl sampledLogger;
+
+    @Setup
+    public void setup() {
+        logManager = new LogManager();
+        logger = new LoggerImpl("core.framework.impl.log.ActionLogBenchmark", logManager, LogLevel.DEBUG);
+        sampledLogManager = new LogManager();
+        sampledLogManager.debugTraceSampleRate = 0;
+        sampledLogger = new LoggerImpl("core.framework.impl.log.ActionLogBenchmark", sampledLogManager, LogLevel.DEBUG);
+    }
+
+    @Benchmark
+    public void captureAll() {
+        request(logManager, logger);
+    }
+
+    @Benchmark
+    public void skipDebug() {
+        request(sampledLogManager, sampledLogger);
+    }
+
+    private void request(LogManager logManager, LoggerImpl logger) {
+        logManager.begin("=== begin ===");
+        for (int i = 0; i < 200; i++) {
+            logger.debug("process item, index={}, name={}", i, "item");
+        }
+        logManager.end("=== end ===");
+    }
+}
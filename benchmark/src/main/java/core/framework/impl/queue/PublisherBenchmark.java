@@ -0,0 +1,86 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * compare confirmed publishing by request threads with async publisher, against in-process channel stand-in,
+ * which takes 200us for each confirm round trip, sync uses one channel per thread, so it's upper bound of pooled channels
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class PublisherBenchmark {
+    private static final long CONFIRM_ROUND_TRIP_IN_NANOS = 200_000;
+
+    private final byte[] message = new byte[256];
+    private final AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().type("message").deliveryMode(2).build();
+    private AsyncPublisher publisher;
+
+    @Setup
+    public void setup() {
+        publisher = new AsyncPublisher("benchmark-publisher", 10000, PublisherBenchmark::channel);
+        publisher.start();
+    }
+
+    @TearDown
+    public void cleanup() {
+        publisher.stop();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void sync(SyncState state) throws IOException, InterruptedException, TimeoutException {
+        state.channel.basicPublish("", "queue", properties, message);
+        state.channel.waitForConfirmsOrDie(30_000);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void async() {
+        publisher.publish("", "queue", message, properties).join();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void asyncWithoutWait() {
+        publisher.publish("", "queue", message, properties);   // bounded by queue capacity, so it measures throughput of publisher thread
+    }
+
+    static Channel channel() {
+        return (Channel) Proxy.newProxyInstance(Channel.class.getClassLoader(), new Class<?>[]{Channel.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "waitForConfirmsOrDie":
+                    LockSupport.parkNanos(CONFIRM_ROUND_TRIP_IN_NANOS);
+                    return null;
+                case "isOpen":
+                    return Boolean.TRUE;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @State(Scope.Thread)
+    public static class SyncState {
+        final Channel channel = channel();
+    }
+}
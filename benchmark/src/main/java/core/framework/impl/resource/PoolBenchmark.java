@@ -0,0 +1,125 @@
+package core.framework.impl.resource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * compare striped pool with previous single LinkedBlockingDeque implementation, with default redis/db pool size (max=50)
+ *
+ * @author neo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class PoolBenchmark {
+    private Pool<Object> pool;
+    private DequePool dequePool;
+
+    @Setup
+    public void setup() {
+        pool = new Pool<>(Object::new, resource -> {
+        });
+        pool.size(5, 50);
+        dequePool = new DequePool(50);
+    }
+
+    @TearDown
+    public void cleanup() {
+        pool.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void striped1() {
+        pool.returnItem(pool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void striped16() {
+        pool.returnItem(pool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void striped64() {
+        pool.returnItem(pool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(256)
+    public void striped256() {
+        pool.returnItem(pool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void deque1() {
+        dequePool.returnItem(dequePool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void deque16() {
+        dequePool.returnItem(dequePool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void deque64() {
+        dequePool.returnItem(dequePool.borrowItem());
+    }
+
+    @Benchmark
+    @Threads(256)
+    public void deque256() {
+        dequePool.returnItem(dequePool.borrowItem());
+    }
+
+    // the previous pool algorithm, all idle items in one LinkedBlockingDeque
+    static final class DequePool {
+        final BlockingDeque<PoolItem<Object>> idleItems = new LinkedBlockingDeque<>();
+        final AtomicInteger total = new AtomicInteger(0);
+        final int maxSize;
+
+        DequePool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        PoolItem<Object> borrowItem() {
+            PoolItem<Object> item = idleItems.poll();
+            if (item != null) return item;
+
+            if (total.get() < maxSize) {
+                total.incrementAndGet();
+                return new PoolItem<>(new Object());
+            }
+            try {
+                item = idleItems.poll(30, TimeUnit.SECONDS);
+                if (item == null) throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
+                return item;
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+        }
+
+        void returnItem(PoolItem<Object> item) {
+            item.returnTime = System.currentTimeMillis();
+            idleItems.push(item);
+        }
+    }
+}
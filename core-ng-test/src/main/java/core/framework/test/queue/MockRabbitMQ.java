@@ -4,8 +4,10 @@ import com.rabbitmq.client.AMQP;
 import core.framework.impl.queue.RabbitMQ;
 import core.framework.impl.queue.RabbitMQConsumer;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
@@ -21,6 +23,18 @@ public class MockRabbitMQ implements RabbitMQ {
         queue.add(message);
     }
 
+    @Override
+    public void publish(String exchange, String routingKey, List<byte[]> messages, AMQP.BasicProperties properties) {
+        Queue<byte[]> queue = publishedMessages.computeIfAbsent(exchange + ":" + routingKey, key -> new ConcurrentLinkedQueue<>());
+        queue.addAll(messages);
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+        publish(exchange, routingKey, message, properties);
+        return CompletableFuture.completedFuture(null);
+    }
+
     @Override
     public RabbitMQConsumer consumer(String queue, int prefetchCount) {
         throw new Error("not supported");
@@ -1,6 +1,7 @@
 package core.framework.test.redis;
 
 import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisPipeline;
 import core.framework.api.util.Maps;
 
 import java.time.Duration;
@@ -42,6 +43,7 @@ public final class MockRedis implements Redis {
     @Override
     public void expire(String key, Duration duration) {
         Value value = (Value) store.get(key);
+        if (value == null) return;
         value.expirationTime = System.currentTimeMillis() + duration.toMillis();
     }
 
@@ -69,6 +71,7 @@ public final class MockRedis implements Redis {
     public Map<String, String> hgetAll(String key) {
         @SuppressWarnings("unchecked")
         Map<String, String> value = (Map<String, String>) store.get(key);
+        if (value == null) return Maps.newHashMap();
         return value;
     }
 
@@ -79,6 +82,11 @@ public final class MockRedis implements Redis {
         hash.putAll(values);
     }
 
+    @Override
+    public RedisPipeline pipeline() {
+        return new MockRedisPipeline(this);
+    }
+
     static class Value {
         String value;
         long expirationTime;
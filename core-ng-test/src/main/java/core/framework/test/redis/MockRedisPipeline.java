@@ -0,0 +1,96 @@
+package core.framework.test.redis;
+
+import core.framework.api.redis.RedisPipeline;
+import core.framework.api.util.Lists;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @author neo
+ */
+public final class MockRedisPipeline implements RedisPipeline {
+    private final MockRedis redis;
+    private final List<Runnable> commands = Lists.newArrayList();
+    private boolean executed;
+
+    MockRedisPipeline(MockRedis redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Supplier<String> get(String key) {
+        Result<String> result = new Result<>();
+        add(() -> result.set(redis.get(key)));
+        return result;
+    }
+
+    @Override
+    public void set(String key, String value) {
+        add(() -> redis.set(key, value));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        add(() -> redis.set(key, value, expiration));
+    }
+
+    @Override
+    public Supplier<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        Result<Boolean> result = new Result<>();
+        add(() -> result.set(redis.setIfAbsent(key, value, expiration)));
+        return result;
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        add(() -> redis.expire(key, duration));
+    }
+
+    @Override
+    public void del(String key) {
+        add(() -> redis.del(key));
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hgetAll(String key) {
+        Result<Map<String, String>> result = new Result<>();
+        add(() -> result.set(redis.hgetAll(key)));
+        return result;
+    }
+
+    @Override
+    public void hmset(String key, Map<String, String> values) {
+        add(() -> redis.hmset(key, values));
+    }
+
+    @Override
+    public void execute() {
+        if (executed) throw new Error("pipeline is already executed");
+        executed = true;
+        commands.forEach(Runnable::run);
+    }
+
+    private void add(Runnable command) {
+        if (executed) throw new Error("pipeline is already executed");
+        commands.add(command);
+    }
+
+    private static final class Result<T> implements Supplier<T> {
+        private T value;
+        private boolean completed;
+
+        void set(T value) {
+            this.value = value;
+            completed = true;
+        }
+
+        @Override
+        public T get() {
+            if (!completed) throw new Error("pipeline is not executed");
+            return value;
+        }
+    }
+}
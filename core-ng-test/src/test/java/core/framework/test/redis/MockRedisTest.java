@@ -1,12 +1,17 @@
 package core.framework.test.redis;
 
+import core.framework.api.redis.RedisPipeline;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author neo
@@ -37,4 +42,22 @@ public class MockRedisTest {
         assertEquals("value2", values.get("key2"));
         assertNull(values.get("key3"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void pipeline() {
+        redis.set("key1", "value1");
+
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value = pipeline.get("key1");
+        pipeline.set("key2", "value2");
+        Supplier<Boolean> absent = pipeline.setIfAbsent("key1", "value", Duration.ofMinutes(1));
+        Supplier<Map<String, String>> hash = pipeline.hgetAll("key3");
+        assertNull(redis.get("key2"));
+
+        pipeline.execute();
+        assertEquals("value1", value.get());
+        assertFalse(absent.get());
+        assertTrue(hash.get().isEmpty());
+        assertEquals("value2", redis.get("key2"));
+    }
+}
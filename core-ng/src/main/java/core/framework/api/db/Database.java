@@ -2,6 +2,7 @@ package core.framework.api.db;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -11,7 +12,14 @@ public interface Database {
 
     <T> Optional<T> selectOne(String sql, Class<T> viewClass, Object... params);
 
+    // stream rows to consumer one by one without loading all into memory, connection is held until scan finishes,
+    // for mysql, the connection can not run other queries while streaming, so forEach is not allowed within transaction, it throws error
+    <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params);
+
     int execute(String sql, Object... params);
 
     Transaction beginTransaction();
+
+    // select within the scope on current thread reads from primary instead of replicas, e.g. to read rows just written
+    ReadFromPrimary readFromPrimary();
 }
@@ -0,0 +1,9 @@
+package core.framework.api.db;
+
+/**
+ * @author neo
+ */
+public interface ReadFromPrimary extends AutoCloseable {
+    @Override
+    void close();
+}
@@ -2,6 +2,7 @@ package core.framework.api.db;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -16,6 +17,9 @@ public interface Repository<T> {
         return select(query);
     }
 
+    // stream rows to consumer one by one without loading all into memory, refer to Database.forEach()
+    void forEach(Query query, Consumer<T> consumer);
+
     Optional<T> selectOne(String where, Object... params);
 
     Optional<T> get(Object... primaryKeys);
@@ -26,7 +30,8 @@ public interface Repository<T> {
 
     void delete(Object... primaryKeys);
 
-    void batchInsert(List<T> entities);
+    // insert in multi-row INSERT chunks, return generated ids in order of entities if primary key is auto increment, otherwise empty list
+    List<Long> batchInsert(List<T> entities);
 
     void batchDelete(List<?> primaryKeys);
 }
@@ -35,6 +35,7 @@ public final class ActionLogContext {
 
     public static void track(String action, long elapsedTime) {
         LogManager logManager = logManager();
+        logManager.operationLatencies.record(action, elapsedTime);
         ActionLog actionLog = logManager.currentActionLog();
         if (actionLog != null) {
             actionLog.track(action, elapsedTime);
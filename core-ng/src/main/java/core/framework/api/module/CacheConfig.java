@@ -5,12 +5,16 @@ import core.framework.api.http.HTTPMethod;
 import core.framework.api.util.ASCII;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Types;
+import core.framework.impl.cache.CacheImpl;
 import core.framework.impl.cache.CacheManager;
 import core.framework.impl.cache.CacheStore;
 import core.framework.impl.cache.LocalCacheStore;
+import core.framework.impl.cache.NearCache;
+import core.framework.impl.cache.NearCacheInvalidator;
 import core.framework.impl.cache.RedisCacheStore;
 import core.framework.impl.module.ModuleContext;
 import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
 import core.framework.impl.web.ControllerHolder;
 import core.framework.impl.web.management.CacheController;
 import org.slf4j.Logger;
@@ -19,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.Duration;
+import java.util.function.UnaryOperator;
 
 /**
  * @author neo
@@ -37,14 +42,14 @@ public final class CacheConfig {
         }
 
         logger.info("create local cache store");
-        LocalCacheStore cacheStore = new LocalCacheStore();
+        configureCacheManager(new LocalCacheStore());
         if (!context.isTest()) {
-            context.backgroundTask().scheduleWithFixedDelay(cacheStore::cleanup, Duration.ofMinutes(30));
+            context.backgroundTask().scheduleWithFixedDelay(context.cacheManager::cleanupLocalCacheStores, Duration.ofMinutes(30));
         }
-        configureCacheManager(cacheStore);
     }
 
-    public void redis(String host) {
+    // keys are distributed to hosts by consistent hashing if multiple hosts
+    public void redis(String... hosts) {
         if (context.cacheManager != null) {
             throw new Error("cache store is configured, please only configure cache store once at beginning of application");
         }
@@ -53,22 +58,48 @@ public final class CacheConfig {
             logger.info("use local cache during test");
             local();
         } else {
-            logger.info("create redis cache manager, host={}", host);
-
-            RedisImpl redis = new RedisImpl();
-            redis.host(host);
-            redis.pool.name("redis-cache");
-            redis.timeout(Duration.ofSeconds(1));   // for cache, use shorter timeout than default redis config
+            logger.info("create redis cache manager, hosts={}", (Object) hosts);
+            configureCacheManager(new RedisCacheStore(createRedis(hosts)));
+        }
+    }
 
-            context.shutdownHook.add(redis::close);
-            context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
+    // keep deserialized values in local memory for nearCacheDuration in front of redis, put/evict invalidates near cache on all nodes thru redis pub/sub,
+    // values from near cache are shared instances, must not be modified
+    public void redis(String host, Duration nearCacheDuration, int nearCacheMaxSize) {
+        if (context.cacheManager != null) {
+            throw new Error("cache store is configured, please only configure cache store once at beginning of application");
+        }
 
+        if (context.isTest()) {
+            logger.info("use local cache during test");
+            local();
+        } else {
+            logger.info("create redis cache manager with near cache, host={}, nearCacheDuration={}, nearCacheMaxSize={}", host, nearCacheDuration, nearCacheMaxSize);
+            ShardedRedisImpl redis = createRedis(host);
             configureCacheManager(new RedisCacheStore(redis));
+
+            NearCache nearCache = new NearCache(nearCacheDuration, nearCacheMaxSize);
+            NearCacheInvalidator invalidator = new NearCacheInvalidator(redis, nearCache);
+            context.startupHook.add(invalidator::start);
+            context.shutdownHook.add(invalidator::stop);
+            context.cacheManager.nearCache(nearCache);
+        }
+    }
+
+    private ShardedRedisImpl createRedis(String... hosts) {
+        ShardedRedisImpl redis = new ShardedRedisImpl("redis-cache");
+        redis.timeout(Duration.ofSeconds(1));   // for cache, use shorter timeout than default redis config
+        for (RedisImpl shard : redis.hosts(hosts)) {
+            context.backgroundTask().scheduleWithFixedDelay(shard.pool::refresh, Duration.ofMinutes(5));
+            context.pools.add(shard.pool);
         }
+        context.shutdownHook.add(redis::close);
+        return redis;
     }
 
     private void configureCacheManager(CacheStore cacheStore) {
         context.cacheManager = new CacheManager(cacheStore);
+        context.shutdownHook.add(context.cacheManager::stop);
 
         if (!context.isTest()) {
             CacheController controller = new CacheController(context.cacheManager);
@@ -78,19 +109,51 @@ public final class CacheConfig {
         }
     }
 
-    public void add(String name, Type valueType, Duration duration) {
+    public CacheSettings add(String name, Type valueType, Duration duration) {
         if (context.cacheManager == null) {
             throw Exceptions.error("cache store is not configured, please configure cache store at beginning of application");
         }
 
         String cacheName = cacheName(name, valueType);
         logger.info("add cache, cacheName={}, valueType={}, beanName={}", cacheName, valueType.getTypeName(), name);
-        Cache<?> cache = context.cacheManager.add(cacheName, valueType, duration);
+        CacheImpl<?> cache = context.cacheManager.add(cacheName, valueType, duration);
+        context.beanFactory.bind(Types.generic(Cache.class, valueType), name, cache);
+        return cache;
+    }
+
+    public CacheSettings add(Type valueType, Duration duration) {
+        return add(null, valueType, duration);
+    }
+
+    // bound total size of cached values in bytes for local cache store, redis cache relies on redis maxmemory policy
+    public CacheSettings add(String name, Type valueType, Duration duration, long maxSize) {
+        if (context.cacheManager == null) {
+            throw Exceptions.error("cache store is not configured, please configure cache store at beginning of application");
+        }
+
+        String cacheName = cacheName(name, valueType);
+        logger.info("add cache, cacheName={}, valueType={}, beanName={}, maxSize={}", cacheName, valueType.getTypeName(), name, maxSize);
+        CacheImpl<?> cache = context.cacheManager.add(cacheName, valueType, duration, maxSize);
         context.beanFactory.bind(Types.generic(Cache.class, valueType), name, cache);
+        return cache;
     }
 
-    public void add(Type valueType, Duration duration) {
-        add(null, valueType, duration);
+    // for immutable value type, local cache returns the same instance without json serialization
+    public CacheSettings addObjectCache(String name, Type valueType, Duration duration) {
+        return addObjectCache(name, valueType, duration, null);
+    }
+
+    // copier is to copy mutable value when put into or get from local cache
+    public <T> CacheSettings addObjectCache(String name, Type valueType, Duration duration, UnaryOperator<T> copier) {
+        if (context.cacheManager == null) {
+            throw Exceptions.error("cache store is not configured, please configure cache store at beginning of application");
+        }
+
+        String cacheName = cacheName(name, valueType);
+        logger.info("add object cache, cacheName={}, valueType={}, beanName={}", cacheName, valueType.getTypeName(), name);
+        CacheImpl<?> cache = context.cacheManager.addObjectCache(cacheName, valueType, duration, copier);
+        context.beanFactory.bind(Types.generic(Cache.class, valueType), name, cache);
+        return cache;
     }
 
     String cacheName(String name, Type valueType) {
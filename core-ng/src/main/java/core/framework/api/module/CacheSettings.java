@@ -0,0 +1,21 @@
+package core.framework.api.module;
+
+import java.time.Duration;
+
+/**
+ * @author neo
+ */
+public interface CacheSettings {
+    // after cache duration, return stale value up to staleDuration while refreshing in background, loader must not depend on current request
+    CacheSettings staleWhileRevalidate(Duration staleDuration);
+
+    // encode value in compact binary format instead of json, and compress value larger than compressThreshold in bytes, 0 means not compress,
+    // value written by previous version of value class is treated as cache miss
+    CacheSettings binaryCodec(int compressThreshold);
+
+    // within the last fraction of duration, reload value in background on access, the probability grows toward expiration (XFetch)
+    CacheSettings refreshAhead(double fraction);
+
+    // shorten duration of each write randomly up to ratio, to spread expiration of values loaded at same time
+    CacheSettings durationJitter(double ratio);
+}
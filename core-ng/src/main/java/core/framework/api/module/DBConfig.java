@@ -8,9 +8,11 @@ import core.framework.api.util.Strings;
 import core.framework.api.util.Types;
 import core.framework.impl.db.DatabaseImpl;
 import core.framework.impl.module.ModuleContext;
+import core.framework.impl.resource.Pool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
 import java.time.Duration;
 
 /**
@@ -21,6 +23,7 @@ public final class DBConfig {
     private final Logger logger = LoggerFactory.getLogger(DBConfig.class);
     private final ModuleContext context;
     private final String name;
+    private Integer idleHeadroom;
 
     public DBConfig(ModuleContext context, String name) {
         this.context = context;
@@ -36,6 +39,8 @@ public final class DBConfig {
 
             if (!context.isTest()) {
                 context.backgroundTask().scheduleWithFixedDelay(database.pool::refresh, Duration.ofMinutes(30));
+                context.pools.add(database.pool);
+                context.logManager.metrics.add(database.operation.statementCacheMetrics);
             }
 
             context.beanFactory.bind(Database.class, name, database);
@@ -51,6 +56,20 @@ public final class DBConfig {
         }
     }
 
+    // select outside transaction reads from replicas with least outstanding requests, use database.readFromPrimary() to read own writes
+    public void replicas(String... urls) {
+        if (context.isTest()) {
+            logger.info("use primary hsqldb as replica during test");
+        } else {
+            for (Pool<Connection> replicaPool : database.replicas(urls)) {
+                if (idleHeadroom != null) replicaPool.maintainInBackground(idleHeadroom);
+                context.startupHook.add(replicaPool::start);
+                context.backgroundTask().scheduleWithFixedDelay(replicaPool::refresh, Duration.ofMinutes(30));
+                context.pools.add(replicaPool);
+            }
+        }
+    }
+
     public void user(String user) {
         if (!context.isTest()) {
             database.user(user);
@@ -70,6 +89,16 @@ public final class DBConfig {
 
     public void poolSize(int minSize, int maxSize) {
         database.pool.size(minSize, maxSize);
+        database.replicaPools.forEach(replicaPool -> replicaPool.size(minSize, maxSize));
+    }
+
+    public void maintainPoolInBackground(int idleHeadroom) {
+        if (!context.isTest()) {
+            this.idleHeadroom = idleHeadroom;
+            database.pool.maintainInBackground(idleHeadroom);
+            database.replicaPools.forEach(replicaPool -> replicaPool.maintainInBackground(idleHeadroom));
+            context.startupHook.add(database.pool::start);
+        }
     }
 
     public void defaultIsolationLevel(IsolationLevel level) {
@@ -92,6 +121,19 @@ public final class DBConfig {
         database.timeout(timeout);
     }
 
+    // max prepared statements cached per connection, 0 means not cache, default is 25,
+    // for mysql, cached statements are server side, and all connections to the server share max_prepared_stmt_count (default 16382),
+    // e.g. size 25 * 50 connections * 4 instances = 5000 statements
+    public void statementCacheSize(int size) {
+        database.statementCacheSize(size);
+    }
+
+    // split batch insert/delete into statements of at most maxRows rows and estimated maxPacketSize bytes, maxPacketSize should not exceed max_allowed_packet of mysql
+    public void batchSize(int maxRows, long maxPacketSize) {
+        database.batchMaxRows = maxRows;
+        database.batchMaxPacketSize = maxPacketSize;
+    }
+
     public void view(Class<?> viewClass) {
         database.view(viewClass);
     }
@@ -61,10 +61,22 @@ public final class LogConfig {
             logger.info("disable log forwarding during test");
         } else {
             context.logManager.logForwarder = new LogForwarder(host, context.logManager.appName);
-            context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(context.logManager.logForwarder), Duration.ofSeconds(10));
+            context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(context.logManager, context.pools), Duration.ofSeconds(10));
         }
     }
 
+    // request threads put action/trace logs into bounded queue and writer threads write in batch,
+    // if queue is full, either block request thread or drop log (counted as log_dropped stat)
+    public void writeLogAsync(int queueSize, boolean blockWhenFull) {
+        context.logManager.asyncWriter(queueSize, blockWhenFull);
+    }
+
+    // only capture debug events into trace for given ratio of actions, trace of other actions only contains info and above if flushed,
+    // trace flag on request still captures all events
+    public void sampleDebugTrace(double sampleRate) {
+        context.logManager.debugTraceSampleRate = sampleRate;
+    }
+
     public void filter(MessageFilter filter) {
         context.logManager.filter = filter;
     }
@@ -1,12 +1,29 @@
 package core.framework.api.module;
 
+import core.framework.api.queue.BulkMessageHandler;
 import core.framework.api.queue.MessageHandler;
 
+import java.time.Duration;
+import java.util.function.Function;
+
 /**
  * @author neo
  */
 public interface MessageHandlerConfig {
     <T> MessageHandlerConfig handle(Class<T> messageClass, MessageHandler<T> handler);
 
+    // messages with same partition key are handled in order by one of single thread lanes, refer to partitions()
+    <T> MessageHandlerConfig handle(Class<T> messageClass, MessageHandler<T> handler, Function<T, String> partitionKey);
+
+    // number of lanes for partitioned messages, default is number of cpu cores
+    MessageHandlerConfig partitions(int partitions);
+
+    // handler receives up to maxSize messages, or whatever arrived within maxWait since first one, acknowledged together on success,
+    // on failure, messages are handled one by one
+    <T> MessageHandlerConfig handle(Class<T> messageClass, BulkMessageHandler<T> handler, int maxSize, Duration maxWait);
+
     MessageHandlerConfig poolSize(int poolSize);
+
+    // handler concurrency and prefetch are adjusted within range by observed handler latency and backlog
+    MessageHandlerConfig poolSize(int minPoolSize, int maxPoolSize);
 }
@@ -1,5 +1,6 @@
 package core.framework.api.module;
 
+import core.framework.api.http.HTTPMethod;
 import core.framework.api.queue.MessagePublisher;
 import core.framework.api.util.Types;
 import core.framework.impl.module.ModuleContext;
@@ -8,8 +9,11 @@ import core.framework.impl.queue.RabbitMQ;
 import core.framework.impl.queue.RabbitMQImpl;
 import core.framework.impl.queue.RabbitMQListener;
 import core.framework.impl.queue.RabbitMQPublisher;
+import core.framework.impl.web.ControllerHolder;
+import core.framework.impl.web.management.QueueController;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * @author neo
@@ -28,6 +32,7 @@ public final class QueueConfig {
             } else {
                 RabbitMQImpl rabbitMQ = new RabbitMQImpl();
                 context.backgroundTask().scheduleWithFixedDelay(rabbitMQ.pool::refresh, Duration.ofMinutes(5));
+                context.pools.add(rabbitMQ.pool);
                 context.shutdownHook.add(rabbitMQ::close);
                 this.rabbitMQ = rabbitMQ;
             }
@@ -36,7 +41,11 @@ public final class QueueConfig {
     }
 
     public MessageHandlerConfig subscribe(String queue) {
-        return context.queueManager.listeners().computeIfAbsent(queue, key -> {
+        Map<String, MessageHandlerConfig> listeners = context.queueManager.listeners();
+        if (listeners.isEmpty() && !context.isTest()) {
+            context.httpServer.handler.route.add(HTTPMethod.GET, "/_sys/queue", new ControllerHolder(new QueueController(listeners)::list, true));
+        }
+        return listeners.computeIfAbsent(queue, key -> {
             RabbitMQListener listener = new RabbitMQListener(rabbitMQ, queue, context.queueManager.validator(), context.logManager);
             if (!context.isTest()) {
                 context.startupHook.add(listener::start);
@@ -77,6 +86,13 @@ public final class QueueConfig {
         }
     }
 
+    // async publish waits for broker confirms once per batch, which takes queued messages up to batchSize or batchInterval
+    public void publishConfirm(int batchSize, Duration batchInterval) {
+        if (!context.isTest()) {
+            ((RabbitMQImpl) rabbitMQ).publishConfirm(batchSize, batchInterval);
+        }
+    }
+
     public void poolSize(int minSize, int maxSize) {
         if (!context.isTest()) {
             ((RabbitMQImpl) rabbitMQ).pool.size(minSize, maxSize);
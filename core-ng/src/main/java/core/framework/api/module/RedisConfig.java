@@ -3,6 +3,7 @@ package core.framework.api.module;
 import core.framework.api.redis.Redis;
 import core.framework.impl.module.ModuleContext;
 import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
 
 import java.time.Duration;
 
@@ -22,9 +23,9 @@ public final class RedisConfig {
             if (context.isTest()) {
                 redis = context.mockFactory.create(Redis.class);
             } else {
-                RedisImpl redis = new RedisImpl();
+                ShardedRedisImpl redis = new ShardedRedisImpl("redis");
+                context.startupHook.add(redis::start);
                 context.shutdownHook.add(redis::close);
-                context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
                 this.redis = redis;
             }
             context.beanFactory.bind(Redis.class, null, redis);
@@ -32,26 +33,40 @@ public final class RedisConfig {
     }
 
     public void host(String host) {
+        hosts(host);
+    }
+
+    // distribute keys to multiple hosts by consistent hashing, each host has its own pool
+    public void hosts(String... hosts) {
         if (!context.isTest()) {
-            ((RedisImpl) redis).host(host);
+            for (RedisImpl shard : ((ShardedRedisImpl) redis).hosts(hosts)) {
+                context.backgroundTask().scheduleWithFixedDelay(shard.pool::refresh, Duration.ofMinutes(5));
+                context.pools.add(shard.pool);
+            }
         }
     }
 
     public void poolSize(int minSize, int maxSize) {
         if (!context.isTest()) {
-            ((RedisImpl) redis).pool.size(minSize, maxSize);
+            ((ShardedRedisImpl) redis).poolSize(minSize, maxSize);
+        }
+    }
+
+    public void maintainPoolInBackground(int idleHeadroom) {
+        if (!context.isTest()) {
+            ((ShardedRedisImpl) redis).maintainPoolInBackground(idleHeadroom);
         }
     }
 
     public void slowOperationThreshold(Duration threshold) {
         if (!context.isTest()) {
-            ((RedisImpl) redis).slowOperationThreshold(threshold);
+            ((ShardedRedisImpl) redis).slowOperationThreshold(threshold);
         }
     }
 
     public void timeout(Duration timeout) {
         if (!context.isTest()) {
-            ((RedisImpl) redis).timeout(timeout);
+            ((ShardedRedisImpl) redis).timeout(timeout);
         }
     }
 }
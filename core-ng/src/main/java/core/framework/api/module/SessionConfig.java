@@ -2,6 +2,7 @@ package core.framework.api.module;
 
 import core.framework.impl.module.ModuleContext;
 import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
 import core.framework.impl.web.session.LocalSessionStore;
 import core.framework.impl.web.session.RedisSessionStore;
 import org.slf4j.Logger;
@@ -33,17 +34,19 @@ public final class SessionConfig {
         context.httpServer.siteManager.sessionManager.sessionStore(sessionStore);
     }
 
-    public void redis(String host) {
+    // sessions are distributed to hosts by consistent hashing if multiple hosts
+    public void redis(String... hosts) {
         if (context.isTest()) {
             logger.info("use local session during test");
             local();
         } else {
-            logger.info("create redis session provider, host={}", host);
+            logger.info("create redis session provider, hosts={}", (Object) hosts);
 
-            RedisImpl redis = new RedisImpl();
-            redis.host(host);
-            redis.pool.name("redis-session");
-            context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
+            ShardedRedisImpl redis = new ShardedRedisImpl("redis-session");
+            for (RedisImpl shard : redis.hosts(hosts)) {
+                context.backgroundTask().scheduleWithFixedDelay(shard.pool::refresh, Duration.ofMinutes(5));
+                context.pools.add(shard.pool);
+            }
 
             context.shutdownHook.add(redis::close);
             context.httpServer.siteManager.sessionManager.sessionStore(new RedisSessionStore(redis));
@@ -64,7 +64,7 @@ public final class SystemModule extends Module {
         property("sys.jdbc.user").ifPresent(user -> db().user(user));
         property("sys.jdbc.password").ifPresent(password -> db().password(password));
 
-        property("sys.redis.host").ifPresent(host -> redis().host(host));
+        property("sys.redis.host").ifPresent(hosts -> redis().hosts(Strings.split(hosts, ',')));
 
         property("sys.elasticsearch.host").ifPresent(host -> search().host(host));
 
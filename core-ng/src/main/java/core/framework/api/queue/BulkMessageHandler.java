@@ -0,0 +1,11 @@
+package core.framework.api.queue;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+@FunctionalInterface
+public interface BulkMessageHandler<T> {
+    void handle(List<T> messages) throws Exception;
+}
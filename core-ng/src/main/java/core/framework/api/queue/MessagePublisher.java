@@ -1,5 +1,8 @@
 package core.framework.api.queue;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author neo
  */
@@ -11,4 +14,10 @@ public interface MessagePublisher<T> {
     void publish(T message, int priority);  // priority range is determined by "x-max-priority" argument when creating the queue
 
     void publish(String exchange, String routingKey, T message);
+
+    // publish through one channel with shared properties, for large amount of messages
+    void publishAll(List<T> messages);
+
+    // publish by background thread with publisher confirms, future completes when broker confirmed, or completes exceptionally to let caller retry
+    CompletableFuture<Void> publishAsync(T message);
 }
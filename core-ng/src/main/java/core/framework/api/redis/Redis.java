@@ -26,4 +26,6 @@ public interface Redis {
     Map<String, String> hgetAll(String key);
 
     void hmset(String key, Map<String, String> values);
+
+    RedisPipeline pipeline();
 }
@@ -0,0 +1,30 @@
+package core.framework.api.redis;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * queue commands and send them in one round trip on execute(), results are available after execute()
+ *
+ * @author neo
+ */
+public interface RedisPipeline {
+    Supplier<String> get(String key);
+
+    void set(String key, String value);
+
+    void set(String key, String value, Duration expiration);
+
+    Supplier<Boolean> setIfAbsent(String key, String value, Duration expiration);
+
+    void expire(String key, Duration duration);
+
+    void del(String key);
+
+    Supplier<Map<String, String>> hgetAll(String key);
+
+    void hmset(String key, Map<String, String> values);
+
+    void execute();
+}
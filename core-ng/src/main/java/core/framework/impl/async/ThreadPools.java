@@ -4,6 +4,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -23,10 +24,19 @@ public final class ThreadPools {
         return Executors.newFixedThreadPool(poolSize, new ThreadFactoryImpl(prefix));
     }
 
+    // hand off task to idle or new thread without queueing, run task in caller thread if reached max size
+    public static ThreadPoolExecutor handOffThreadPool(int maxPoolSize, String prefix) {
+        return new ThreadPoolExecutor(0, maxPoolSize, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactoryImpl(prefix), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     public static ScheduledExecutorService singleThreadScheduler(String prefix) {
         return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryImpl(prefix));
     }
 
+    public static ScheduledExecutorService scheduledThreadPool(int poolSize, String prefix) {
+        return Executors.newScheduledThreadPool(poolSize, new ThreadFactoryImpl(prefix));
+    }
+
     static class ThreadFactoryImpl implements ThreadFactory {
         private final AtomicInteger count = new AtomicInteger(1);
         private final String prefix;
@@ -0,0 +1,120 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.reflect.Classes;
+import core.framework.impl.reflect.GenericTypes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * fields are written in declared order without names, value starts with format and fingerprint of value class structure,
+ * so value written by different version of value class is treated as cache miss, and value written by json codec can still be read
+ *
+ * @author neo
+ */
+public final class BinaryCacheCodec<T> implements CacheCodec<T> {
+    private static final byte BINARY = 1;       // json never starts with 1 or 2
+    private static final byte COMPRESSED_BINARY = 2;
+    private static final int HEADER_LENGTH = 5;
+
+    static boolean isBinary(byte format) {
+        return format == BINARY || format == COMPRESSED_BINARY;
+    }
+
+    static int fingerprint(Type valueType) {
+        StringBuilder builder = new StringBuilder();
+        appendStructure(builder, valueType);
+        return builder.toString().hashCode();
+    }
+
+    private static void appendStructure(StringBuilder builder, Type type) {
+        builder.append(type.getTypeName());
+        Class<?> valueClass;
+        if (GenericTypes.isList(type)) valueClass = GenericTypes.listValueClass(type);
+        else if (GenericTypes.isMap(type)) valueClass = GenericTypes.mapValueClass(type);
+        else valueClass = GenericTypes.rawClass(type);
+        if (valueClass.getName().startsWith("java.") || valueClass.isEnum() || "org.bson.types.ObjectId".equals(valueClass.getName())) return;
+        builder.append('{');
+        for (Field field : Classes.instanceFields(valueClass)) {
+            builder.append(field.getName()).append(':');
+            appendStructure(builder, field.getGenericType());
+            builder.append(';');
+        }
+        builder.append('}');
+    }
+
+    private final BinaryCodec codec;
+    private final JSONCacheCodec<T> jsonCodec;
+    private final int fingerprint;
+    private final int compressThreshold;
+
+    // compress value if encoded size in bytes is larger than compressThreshold, 0 means not compress
+    public BinaryCacheCodec(Type valueType, int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+        codec = new BinaryCodecBuilder(valueType).build();
+        jsonCodec = new JSONCacheCodec<>(valueType);
+        fingerprint = fingerprint(valueType);
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        BinaryWriter writer = new BinaryWriter(256);
+        writer.writeByte(BINARY);
+        writer.writeInt(fingerprint);
+        codec.encode(writer, value);
+        byte[] bytes = writer.toByteArray();
+        if (compressThreshold > 0 && bytes.length > compressThreshold) return compress(bytes);
+        return bytes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(byte[] bytes, int offset, int length) {
+        byte format = bytes[offset];
+        if (!isBinary(format)) return jsonCodec.decode(bytes, offset, length);
+        BinaryReader reader = new BinaryReader(bytes, offset + 1);
+        if (reader.readInt() != fingerprint) return null;
+        if (format == BINARY) return (T) codec.decode(reader);
+        return (T) codec.decode(new BinaryReader(decompress(bytes, reader, offset + length), 0));
+    }
+
+    // return original bytes if compressed is not smaller
+    private byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+            deflater.finish();
+            BinaryWriter writer = new BinaryWriter(bytes.length / 2 + 16);
+            writer.writeByte(COMPRESSED_BINARY);
+            writer.writeInt(fingerprint);
+            writer.writeVarLong(bytes.length - HEADER_LENGTH);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                writer.writeBytes(buffer, 0, length);
+                if (writer.size() >= bytes.length) return bytes;
+            }
+            return writer.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress(byte[] bytes, BinaryReader reader, int end) {
+        byte[] result = new byte[(int) reader.readVarLong()];
+        int offset = reader.position();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, offset, end - offset);
+            inflater.inflate(result);
+            return result;
+        } catch (DataFormatException e) {
+            throw new Error(e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package core.framework.impl.cache;
+
+/**
+ * generated by {@link BinaryCodecBuilder}, writes fields in declared order without names
+ *
+ * @author neo
+ */
+public interface BinaryCodec {
+    void encode(BinaryWriter writer, Object value);
+
+    Object decode(BinaryReader reader);
+}
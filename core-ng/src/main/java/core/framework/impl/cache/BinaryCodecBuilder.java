@@ -0,0 +1,244 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.code.CodeBuilder;
+import core.framework.impl.code.DynamicInstanceBuilder;
+import core.framework.impl.reflect.Classes;
+import core.framework.impl.reflect.GenericTypes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+final class BinaryCodecBuilder {
+    private static final String OBJECT_ID_CLASS = "org.bson.types.ObjectId";    // not depends on mongo jar if application doesn't include mongo driver
+
+    final Map<String, String> methods = new LinkedHashMap<>();
+    private final Type valueType;
+    private final String writer = BinaryWriter.class.getCanonicalName();
+    private final String reader = BinaryReader.class.getCanonicalName();
+
+    BinaryCodecBuilder(Type valueType) {
+        this.valueType = valueType;
+    }
+
+    public BinaryCodec build() {
+        DynamicInstanceBuilder<BinaryCodec> builder = new DynamicInstanceBuilder<>(BinaryCodec.class, BinaryCodec.class.getCanonicalName() + "$" + GenericTypes.rawClass(valueType).getSimpleName());
+        buildMethods();
+        methods.values().forEach(builder::addMethod);
+        return builder.build();
+    }
+
+    private void buildMethods() {
+        String valueClassName = GenericTypes.rawClass(valueType).getCanonicalName();
+        CodeBuilder builder = new CodeBuilder().append("public void encode({} writer, Object object) {\n", writer)
+            .indent(1).append("{} value = ({}) object;\n", valueClassName, valueClassName);
+        encodeValue(builder, "value", valueType, 1);
+        builder.append("}");
+        String encodeMethod = builder.build();
+
+        builder = new CodeBuilder().append("public Object decode({} reader) {\n", reader)
+            .indent(1).append("return {};\n", decodeValue(valueType))
+            .append("}");
+        String decodeMethod = builder.build();
+
+        methods.put("encode", encodeMethod);
+        methods.put("decode", decodeMethod);
+    }
+
+    private void encodeValue(CodeBuilder builder, String variable, Type type, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(type);
+        if (GenericTypes.isList(type)) {
+            builder.indent(indent).append("{}(writer, {});\n", encodeListMethod(GenericTypes.listValueClass(type)), variable);
+        } else if (GenericTypes.isMap(type)) {
+            builder.indent(indent).append("{}(writer, {});\n", encodeMapMethod(GenericTypes.mapValueClass(type)), variable);
+        } else if (String.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeString({});\n", variable);
+        } else if (Integer.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeInteger({});\n", variable);
+        } else if (Long.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeLong({});\n", variable);
+        } else if (Double.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeDouble({});\n", variable);
+        } else if (Boolean.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeBoolean({});\n", variable);
+        } else if (BigDecimal.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeBigDecimal({});\n", variable);
+        } else if (LocalDate.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeLocalDate({});\n", variable);
+        } else if (LocalDateTime.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeLocalDateTime({});\n", variable);
+        } else if (Instant.class.equals(valueClass)) {
+            builder.indent(indent).append("writer.writeInstant({});\n", variable);
+        } else if (Enum.class.isAssignableFrom(valueClass)) {
+            builder.indent(indent).append("writer.writeEnum({});\n", variable);
+        } else if (OBJECT_ID_CLASS.equals(valueClass.getCanonicalName())) {
+            builder.indent(indent).append("if ({} == null) writer.writeString(null);\n", variable)
+                .indent(indent).append("else writer.writeString({}.toHexString());\n", variable);
+        } else {
+            builder.indent(indent).append("{}(writer, {});\n", encodeObjectMethod(valueClass), variable);
+        }
+    }
+
+    private String encodeObjectMethod(Class<?> objectClass) {
+        String objectClassName = objectClass.getCanonicalName();
+        String methodName = "encode_" + objectClassName.replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private void {}({} writer, {} object) {\n", methodName, writer, objectClassName)
+            .indent(1).append("if (object == null) {\n")
+            .indent(2).append("writer.writeNull();\n")
+            .indent(2).append("return;\n")
+            .indent(1).append("}\n")
+            .indent(1).append("writer.writeNotNull();\n");
+        for (Field field : Classes.instanceFields(objectClass)) {
+            encodeValue(builder, "object." + field.getName(), field.getGenericType(), 1);
+        }
+        builder.append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String encodeListMethod(Class<?> valueClass) {
+        String valueClassName = valueClass.getCanonicalName();
+        String methodName = ("encode_" + List.class.getCanonicalName() + "_" + valueClassName).replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private void {}({} writer, java.util.List list) {\n", methodName, writer)
+            .indent(1).append("if (list == null) {\n")
+            .indent(2).append("writer.writeNull();\n")
+            .indent(2).append("return;\n")
+            .indent(1).append("}\n")
+            .indent(1).append("writer.writeSize(list.size());\n")
+            .indent(1).append("for (java.util.Iterator iterator = list.iterator(); iterator.hasNext(); ) {\n")
+            .indent(2).append("{} value = ({}) iterator.next();\n", valueClassName, valueClassName);
+        encodeValue(builder, "value", valueClass, 2);
+        builder.indent(1).append("}\n")
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String encodeMapMethod(Class<?> valueClass) {
+        String valueClassName = valueClass.getCanonicalName();
+        String methodName = ("encode_" + Map.class.getCanonicalName() + "_" + valueClassName).replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private void {}({} writer, java.util.Map map) {\n", methodName, writer)
+            .indent(1).append("if (map == null) {\n")
+            .indent(2).append("writer.writeNull();\n")
+            .indent(2).append("return;\n")
+            .indent(1).append("}\n")
+            .indent(1).append("writer.writeSize(map.size());\n")
+            .indent(1).append("for (java.util.Iterator iterator = map.entrySet().iterator(); iterator.hasNext(); ) {\n")
+            .indent(2).append("java.util.Map.Entry entry = (java.util.Map.Entry) iterator.next();\n")
+            .indent(2).append("writer.writeString((String) entry.getKey());\n")
+            .indent(2).append("{} value = ({}) entry.getValue();\n", valueClassName, valueClassName);
+        encodeValue(builder, "value", valueClass, 2);
+        builder.indent(1).append("}\n")
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String decodeValue(Type type) {
+        Class<?> valueClass = GenericTypes.rawClass(type);
+        if (GenericTypes.isList(type)) return decodeListMethod(GenericTypes.listValueClass(type)) + "(reader)";
+        if (GenericTypes.isMap(type)) return decodeMapMethod(GenericTypes.mapValueClass(type)) + "(reader)";
+        if (String.class.equals(valueClass)) return "reader.readString()";
+        if (Integer.class.equals(valueClass)) return "reader.readInteger()";
+        if (Long.class.equals(valueClass)) return "reader.readLong()";
+        if (Double.class.equals(valueClass)) return "reader.readDouble()";
+        if (Boolean.class.equals(valueClass)) return "reader.readBoolean()";
+        if (BigDecimal.class.equals(valueClass)) return "reader.readBigDecimal()";
+        if (LocalDate.class.equals(valueClass)) return "reader.readLocalDate()";
+        if (LocalDateTime.class.equals(valueClass)) return "reader.readLocalDateTime()";
+        if (Instant.class.equals(valueClass)) return "reader.readInstant()";
+        if (Enum.class.isAssignableFrom(valueClass)) {
+            String enumClassName = valueClass.getCanonicalName();
+            return "(" + enumClassName + ") reader.readEnum(" + enumClassName + ".class)";
+        }
+        if (OBJECT_ID_CLASS.equals(valueClass.getCanonicalName())) return decodeObjectIdMethod() + "(reader)";
+        return decodeObjectMethod(valueClass) + "(reader)";
+    }
+
+    private String decodeObjectMethod(Class<?> objectClass) {
+        String objectClassName = objectClass.getCanonicalName();
+        String methodName = "decode_" + objectClassName.replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private {} {}({} reader) {\n", objectClassName, methodName, reader)
+            .indent(1).append("if (reader.readNull()) return null;\n")
+            .indent(1).append("{} object = new {}();\n", objectClassName, objectClassName);
+        for (Field field : Classes.instanceFields(objectClass)) {
+            builder.indent(1).append("object.{} = {};\n", field.getName(), decodeValue(field.getGenericType()));
+        }
+        builder.indent(1).append("return object;\n")
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String decodeListMethod(Class<?> valueClass) {
+        String methodName = ("decode_" + List.class.getCanonicalName() + "_" + valueClass.getCanonicalName()).replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private java.util.List {}({} reader) {\n", methodName, reader)
+            .indent(1).append("int size = reader.readSize();\n")
+            .indent(1).append("if (size < 0) return null;\n")
+            .indent(1).append("java.util.List list = new java.util.ArrayList(size);\n")
+            .indent(1).append("for (int i = 0; i < size; i++) {\n")
+            .indent(2).append("list.add({});\n", decodeValue(valueClass))
+            .indent(1).append("}\n")
+            .indent(1).append("return list;\n")
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String decodeMapMethod(Class<?> valueClass) {
+        String methodName = ("decode_" + Map.class.getCanonicalName() + "_" + valueClass.getCanonicalName()).replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private java.util.Map {}({} reader) {\n", methodName, reader)
+            .indent(1).append("int size = reader.readSize();\n")
+            .indent(1).append("if (size < 0) return null;\n")
+            .indent(1).append("java.util.Map map = new java.util.LinkedHashMap();\n")
+            .indent(1).append("for (int i = 0; i < size; i++) {\n")
+            .indent(2).append("String key = reader.readString();\n")
+            .indent(2).append("map.put(key, {});\n", decodeValue(valueClass))
+            .indent(1).append("}\n")
+            .indent(1).append("return map;\n")
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+
+    private String decodeObjectIdMethod() {
+        String methodName = "decode_" + OBJECT_ID_CLASS.replaceAll("\\.", "_");
+        if (methods.containsKey(methodName)) return methodName;
+
+        CodeBuilder builder = new CodeBuilder().append("private {} {}({} reader) {\n", OBJECT_ID_CLASS, methodName, reader)
+            .indent(1).append("String value = reader.readString();\n")
+            .indent(1).append("if (value == null) return null;\n")
+            .indent(1).append("return new {}(value);\n", OBJECT_ID_CLASS)
+            .append("}\n");
+
+        methods.put(methodName, builder.build());
+        return methodName;
+    }
+}
@@ -0,0 +1,122 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Charsets;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * read values written by {@link BinaryWriter}
+ *
+ * @author neo
+ */
+public final class BinaryReader {
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        position = offset;
+    }
+
+    public int readByte() {
+        return buffer[position++];
+    }
+
+    public int readInt() {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte current = buffer[position++];
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return value;
+            shift += 7;
+        }
+    }
+
+    public int position() {
+        return position;
+    }
+
+    // return -1 if null
+    public int readSize() {
+        return (int) readVarLong() - 1;
+    }
+
+    public boolean readNull() {
+        return readByte() == 0;
+    }
+
+    public String readString() {
+        int size = readSize();
+        if (size < 0) return null;
+        String value = new String(buffer, position, size, Charsets.UTF_8);
+        position += size;
+        return value;
+    }
+
+    public Integer readInteger() {
+        if (readNull()) return null;
+        int number = (int) readVarLong();
+        return (number >>> 1) ^ -(number & 1);
+    }
+
+    public Long readLong() {
+        if (readNull()) return null;
+        long number = readVarLong();
+        return (number >>> 1) ^ -(number & 1);
+    }
+
+    public Double readDouble() {
+        if (readNull()) return null;
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (buffer[position++] & 0xFF);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public Boolean readBoolean() {
+        int value = readByte();
+        if (value == 0) return null;
+        return value == 2;
+    }
+
+    public BigDecimal readBigDecimal() {
+        String value = readString();
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    public LocalDate readLocalDate() {
+        if (readNull()) return null;
+        return LocalDate.ofEpochDay(readVarLong());
+    }
+
+    public LocalDateTime readLocalDateTime() {
+        if (readNull()) return null;
+        LocalDate date = LocalDate.ofEpochDay(readVarLong());
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+    }
+
+    public Instant readInstant() {
+        if (readNull()) return null;
+        long epochSecond = readVarLong();
+        return Instant.ofEpochSecond(epochSecond, readVarLong());
+    }
+
+    public <T extends Enum<T>> T readEnum(Class<T> enumClass) {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(enumClass, name);
+    }
+}
@@ -0,0 +1,167 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Charsets;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * used by generated binary codec, all values are nullable, numbers are written as zigzag varint to be compact
+ *
+ * @author neo
+ */
+public final class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBytes(byte[] bytes) {
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        for (int i = 3; i >= 0; i--) {
+            buffer[position++] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        long current = value;
+        while ((current & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((current & 0x7F) | 0x80);
+            current >>>= 7;
+        }
+        buffer[position++] = (byte) current;
+    }
+
+    // size + 1, 0 means null, for string/list/map
+    public void writeSize(int size) {
+        writeVarLong(size + 1);
+    }
+
+    public void writeNull() {
+        writeByte(0);
+    }
+
+    public void writeNotNull() {
+        writeByte(1);
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(Charsets.UTF_8);
+        writeSize(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeInteger(Integer value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        int number = value;
+        writeVarLong(((number << 1) ^ (number >> 31)) & 0xFFFFFFFFL);
+    }
+
+    public void writeLong(Long value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        long number = value;
+        writeVarLong((number << 1) ^ (number >> 63));
+    }
+
+    public void writeDouble(Double value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int i = 7; i >= 0; i--) {
+            buffer[position++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    public void writeBoolean(Boolean value) {
+        if (value == null) writeNull();
+        else writeByte(value ? 2 : 1);
+    }
+
+    public void writeBigDecimal(BigDecimal value) {
+        writeString(value == null ? null : value.toString());
+    }
+
+    public void writeLocalDate(LocalDate value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        writeVarLong(value.toEpochDay());
+    }
+
+    public void writeLocalDateTime(LocalDateTime value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        writeVarLong(value.toLocalDate().toEpochDay());
+        writeVarLong(value.toLocalTime().toNanoOfDay());
+    }
+
+    public void writeInstant(Instant value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        writeNotNull();
+        writeVarLong(value.getEpochSecond());
+        writeVarLong(value.getNano());
+    }
+
+    public void writeEnum(Enum<?> value) {
+        writeString(value == null ? null : value.name());
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
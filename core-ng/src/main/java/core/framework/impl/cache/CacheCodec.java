@@ -0,0 +1,11 @@
+package core.framework.impl.cache;
+
+/**
+ * @author neo
+ */
+public interface CacheCodec<T> {
+    byte[] encode(T value);
+
+    // return null if value can't be decoded by current codec, e.g. written by previous version of value class, it will be treated as cache miss
+    T decode(byte[] bytes, int offset, int length);
+}
@@ -1,49 +1,134 @@
 package core.framework.impl.cache;
 
 import core.framework.api.cache.Cache;
+import core.framework.api.module.CacheSettings;
 import core.framework.api.util.Charsets;
+import core.framework.api.util.Exceptions;
 import core.framework.api.util.Maps;
-import core.framework.impl.json.JSONReader;
-import core.framework.impl.json.JSONWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
+ * concurrent loads of same key are coalesced, waiting threads get the value as read from cache store,
+ * with stale while revalidate or refresh ahead, value carries its write time and expiration time,
+ * stale value is kept in cache store for staleDuration after expiration, and is returned while one background refresh is running,
+ * refresh ahead reloads value in background before expiration
+ *
  * @author neo
  */
-public class CacheImpl<T> implements Cache<T> {
+public class CacheImpl<T> implements Cache<T>, CacheSettings {
+    private static final byte HEADER = 0;   // encoded value never starts with 0, so value with header can coexist with plain value
+    private static final int HEADER_LENGTH = 17;     // header + write time + expiration time
+    private static final String TIMESTAMPED_KEY_SEGMENT = ":t:";    // value with header is stored under different key, so nodes of previous release never read it
+
     public final String name;
     public final Type valueType;
     public final Duration duration;
+    private final Logger logger = LoggerFactory.getLogger(CacheImpl.class);
     private final CacheStore cacheStore;
-    private final JSONReader<T> reader;
-    private final JSONWriter<T> writer;
+    private final JSONCacheCodec<T> jsonCodec;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final SingleFlight<Object> loads = new SingleFlight<>();     // result is value in store format, byte[] or Entry in object mode
+    NearCache nearCache;
+    LocalCacheStore objectStore;    // object mode, keep values in local cache store without serialization
+    UnaryOperator<T> copier;        // copy value in object mode if value is mutable
+    Executor refreshExecutor;
+    private CacheCodec<T> codec;
+    private Duration staleDuration;
+    private double refreshAheadFraction;
+    private double durationJitter;
 
     CacheImpl(String name, Type valueType, Duration duration, CacheStore cacheStore) {
         this.name = name;
         this.valueType = valueType;
         this.duration = duration;
         this.cacheStore = cacheStore;
-        reader = JSONReader.of(valueType);
-        writer = JSONWriter.of(valueType);
+        jsonCodec = new JSONCacheCodec<>(valueType);
+        codec = jsonCodec;
+    }
+
+    @Override
+    public CacheSettings staleWhileRevalidate(Duration staleDuration) {
+        this.staleDuration = staleDuration;
+        return this;
+    }
+
+    @Override
+    public CacheSettings binaryCodec(int compressThreshold) {
+        codec = new BinaryCacheCodec<>(valueType, compressThreshold);
+        return this;
+    }
+
+    @Override
+    public CacheSettings refreshAhead(double fraction) {
+        if (fraction <= 0 || fraction >= 1) throw Exceptions.error("fraction must be between 0 and 1, fraction={}", fraction);
+        refreshAheadFraction = fraction;
+        return this;
+    }
+
+    @Override
+    public CacheSettings durationJitter(double ratio) {
+        if (ratio < 0 || ratio >= 1) throw Exceptions.error("ratio must be between 0 and 1, ratio={}", ratio);
+        durationJitter = ratio;
+        return this;
     }
 
     @Override
     public T get(String key, Function<String, T> loader) {
         String cacheKey = cacheKey(key);
-        byte[] cacheValue = cacheStore.get(cacheKey);
-        if (cacheValue == null) {
+        if (nearCache != null) {
+            @SuppressWarnings("unchecked")
+            T value = (T) nearCache.get(cacheKey);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+        }
+
+        T value;
+        Entry<T> entry = read(cacheKey);
+        if (entry == null) {
+            misses.increment();
+            value = load(key, cacheKey, loader);
+        } else {
+            hits.increment();
+            if (shouldRefresh(entry, System.currentTimeMillis())) refresh(key, cacheKey, loader);
+            value = entry.value;
+        }
+        if (nearCache != null) nearCache.put(cacheKey, value);
+        return copy(value);
+    }
+
+    private T load(String key, String cacheKey, Function<String, T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> previous = loads.register(cacheKey, call);
+        if (previous != null) return decode(loads.await(previous)).value;
+        try {
             T value = loader.apply(key);
-            cacheStore.put(cacheKey, writer.toJSON(value), duration);
+            call.complete(write(cacheKey, value));
             return value;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.finish(cacheKey, call);
         }
-        return reader.fromJSON(cacheValue);
     }
 
     @Override
@@ -56,42 +141,286 @@ public class CacheImpl<T> implements Cache<T> {
             index++;
         }
         Map<String, T> values = new LinkedHashMap<>(size);
-        Map<String, byte[]> newValues = Maps.newHashMapWithExpectedSize(size);
-        Map<String, byte[]> cacheValues = cacheStore.getAll(cacheKeys);
+        Map<String, T> nearCacheValues = nearCacheValues(cacheKeys);
+        Map<String, Entry<T>> entries = nearCacheValues.size() == size ? Maps.newHashMap() : readAll(remainingKeys(cacheKeys, nearCacheValues));
+        Map<String, CompletableFuture<Object>> calls = Maps.newLinkedHashMap();     // loaded by this thread, key is cacheKey
+        Map<String, CompletableFuture<Object>> inFlightCalls = Maps.newHashMap();   // loaded by other threads, key is cacheKey
+        long now = System.currentTimeMillis();
         index = 0;
         for (String key : keys) {
             String cacheKey = cacheKeys[index];
-            byte[] cacheValue = cacheValues.get(cacheKey);
-            if (cacheValue == null) {
-                T value = loader.apply(key);
-                newValues.put(cacheKey, writer.toJSON(value));
-                values.put(key, value);
+            T value = nearCacheValues.get(cacheKey);
+            if (value == null) {
+                Entry<T> entry = entries.get(cacheKey);
+                if (entry == null) {
+                    misses.increment();
+                    CompletableFuture<Object> call = new CompletableFuture<>();
+                    CompletableFuture<Object> previous = loads.register(cacheKey, call);
+                    if (previous == null) calls.put(cacheKey, call);
+                    else inFlightCalls.put(cacheKey, previous);
+                } else {
+                    hits.increment();
+                    if (shouldRefresh(entry, now)) refresh(key, cacheKey, loader);
+                    value = entry.value;
+                    if (nearCache != null) nearCache.put(cacheKey, value);
+                }
             } else {
-                values.put(key, reader.fromJSON(cacheValue));
+                hits.increment();
             }
+            values.put(key, value);     // put null as placeholder to keep order of keys
             index++;
         }
-        if (!newValues.isEmpty()) cacheStore.putAll(newValues, duration);
+        if (!calls.isEmpty()) loadAll(keys, cacheKeys, calls, values, loader);
+        if (!inFlightCalls.isEmpty()) {     // wait for other threads after finishing own calls, so batches with overlapping keys won't wait for each other
+            index = 0;
+            for (String key : keys) {
+                CompletableFuture<Object> call = inFlightCalls.get(cacheKeys[index]);
+                if (call != null) values.put(key, decode(loads.await(call)).value);
+                index++;
+            }
+        }
+        if (copier != null) values.replaceAll((key, value) -> copy(value));
         return values;
     }
 
+    private void loadAll(List<String> keys, String[] cacheKeys, Map<String, CompletableFuture<Object>> calls, Map<String, T> values, Function<String, T> loader) {
+        try {
+            Map<String, T> newValues = Maps.newLinkedHashMap();
+            int index = 0;
+            for (String key : keys) {
+                String cacheKey = cacheKeys[index];
+                if (calls.containsKey(cacheKey) && !newValues.containsKey(cacheKey)) {
+                    T value = loader.apply(key);
+                    newValues.put(cacheKey, value);
+                    values.put(key, value);
+                    if (nearCache != null) nearCache.put(cacheKey, value);
+                }
+                index++;
+            }
+            Map<String, Object> results = writeAll(newValues);
+            calls.forEach((cacheKey, call) -> call.complete(results.get(cacheKey)));
+        } catch (Throwable e) {
+            calls.values().forEach(call -> call.completeExceptionally(e));
+            throw e;
+        } finally {
+            calls.forEach(loads::finish);
+        }
+    }
+
+    private void refresh(String key, String cacheKey, Function<String, T> loader) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        if (loads.register(cacheKey, call) != null) return;     // other thread is loading
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    call.complete(write(cacheKey, loader.apply(key)));
+                    if (nearCache != null) nearCache.invalidate(cacheKey);
+                } catch (Throwable e) {
+                    logger.warn("failed to refresh cache value, cacheKey={}", cacheKey, e);
+                    call.completeExceptionally(e);
+                } finally {
+                    loads.finish(cacheKey, call);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("failed to submit cache refresh, cacheKey={}", cacheKey, e);
+            call.completeExceptionally(e);
+            loads.finish(cacheKey, call);
+        }
+    }
+
+    private boolean shouldRefresh(Entry<T> entry, long now) {
+        if (entry.expirationTime == 0) return false;    // value without header
+        long remainingTime = entry.expirationTime - now;
+        if (remainingTime <= 0) return staleDuration != null;
+        if (refreshAheadFraction == 0) return false;
+        // XFetch, within the last fraction of ttl, refresh with probability exp(-remainingTime / window), so one of concurrent readers on all nodes refreshes it early
+        long window = (long) ((entry.expirationTime - entry.writeTime) * refreshAheadFraction);
+        return remainingTime <= window && remainingTime <= -Math.log(ThreadLocalRandom.current().nextDouble()) * window;
+    }
+
+    private boolean timestamped() {
+        return staleDuration != null || refreshAheadFraction > 0;
+    }
+
+    // ttl of each write, jitter spreads expiration of keys loaded at same time
+    private long ttl() {
+        long ttl = duration.toMillis();
+        if (durationJitter == 0) return ttl;
+        return ttl - (long) (ttl * durationJitter * ThreadLocalRandom.current().nextDouble());
+    }
+
+    private Duration storeDuration(long ttl) {
+        if (durationJitter == 0 && staleDuration == null) return duration;
+        Duration storeDuration = Duration.ofMillis(ttl);
+        return staleDuration == null ? storeDuration : storeDuration.plus(staleDuration);
+    }
+
+    private Entry<T> read(String cacheKey) {
+        if (objectStore != null) {
+            @SuppressWarnings("unchecked")
+            Entry<T> entry = (Entry<T>) objectStore.getObject(cacheKey);
+            return entry;
+        }
+        byte[] value = cacheStore.get(cacheKey);
+        return value == null ? null : decode(value);
+    }
+
+    private Map<String, Entry<T>> readAll(String[] cacheKeys) {
+        Map<String, Entry<T>> entries = Maps.newHashMapWithExpectedSize(cacheKeys.length);
+        if (objectStore != null) {
+            for (String cacheKey : cacheKeys) {
+                Entry<T> entry = read(cacheKey);
+                if (entry != null) entries.put(cacheKey, entry);
+            }
+        } else {
+            cacheStore.getAll(cacheKeys).forEach((cacheKey, value) -> {
+                Entry<T> entry = decode(value);
+                if (entry != null) entries.put(cacheKey, entry);
+            });
+        }
+        return entries;
+    }
+
+    // return value in store format
+    private Object write(String cacheKey, T value) {
+        long now = System.currentTimeMillis();
+        long ttl = ttl();
+        if (objectStore != null) {
+            Entry<T> entry = new Entry<>(value, now, now + ttl);
+            objectStore.putObject(cacheKey, entry, codec.encode(value).length, storeDuration(ttl));     // serialize only on write to weigh the value, so size bound works same as byte mode
+            return entry;
+        }
+        byte[] bytes = encode(value, now, now + ttl);
+        cacheStore.put(cacheKey, bytes, storeDuration(ttl));
+        return bytes;
+    }
+
+    private Map<String, Object> writeAll(Map<String, T> values) {
+        Map<String, Object> results = Maps.newHashMapWithExpectedSize(values.size());
+        if (objectStore != null) {
+            values.forEach((cacheKey, value) -> results.put(cacheKey, write(cacheKey, value)));
+        } else {
+            long now = System.currentTimeMillis();
+            long ttl = ttl();   // one ttl for batch, as putAll takes one expiration
+            Map<String, byte[]> cacheValues = Maps.newHashMapWithExpectedSize(values.size());
+            values.forEach((cacheKey, value) -> cacheValues.put(cacheKey, encode(value, now, now + ttl)));
+            cacheStore.putAll(cacheValues, storeDuration(ttl));
+            results.putAll(cacheValues);
+        }
+        return results;
+    }
+
+    // only carry write time and expiration time if needed, to keep plain value compatible
+    private byte[] encode(T value, long writeTime, long expirationTime) {
+        byte[] encodedValue = codec.encode(value);
+        if (!timestamped()) return encodedValue;
+        byte[] bytes = new byte[HEADER_LENGTH + encodedValue.length];
+        bytes[0] = HEADER;
+        writeLong(bytes, 1, writeTime);
+        writeLong(bytes, 9, expirationTime);
+        System.arraycopy(encodedValue, 0, bytes, HEADER_LENGTH, encodedValue.length);
+        return bytes;
+    }
+
+    // return null if value can not be decoded by current codec
+    @SuppressWarnings("unchecked")
+    private Entry<T> decode(Object storedValue) {
+        if (storedValue instanceof Entry) return (Entry<T>) storedValue;
+        byte[] bytes = (byte[]) storedValue;
+        if (bytes[0] != HEADER) {
+            T value = codec.decode(bytes, 0, bytes.length);
+            return value == null ? null : new Entry<>(value, 0, 0);
+        }
+        T value = codec.decode(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        return value == null ? null : new Entry<>(value, readLong(bytes, 1), readLong(bytes, 9));
+    }
+
+    private void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + 7 - i] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    private long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private T copy(T value) {
+        return copier == null ? value : copier.apply(value);
+    }
+
+    private Map<String, T> nearCacheValues(String[] cacheKeys) {
+        if (nearCache == null) return Maps.newHashMap();
+        Map<String, T> values = Maps.newHashMapWithExpectedSize(cacheKeys.length);
+        for (String cacheKey : cacheKeys) {
+            @SuppressWarnings("unchecked")
+            T value = (T) nearCache.get(cacheKey);
+            if (value != null) values.put(cacheKey, value);
+        }
+        return values;
+    }
+
+    private String[] remainingKeys(String[] cacheKeys, Map<String, T> nearCacheValues) {
+        if (nearCacheValues.isEmpty()) return cacheKeys;
+        return Arrays.stream(cacheKeys).filter(cacheKey -> !nearCacheValues.containsKey(cacheKey)).toArray(String[]::new);
+    }
+
     @Override
     public void put(String key, T value) {
-        cacheStore.put(cacheKey(key), writer.toJSON(value), duration);
+        String cacheKey = cacheKey(key);
+        write(cacheKey, copy(value));
+        if (nearCache != null) {
+            nearCache.invalidate(cacheKey);
+            nearCache.put(cacheKey, value);
+        }
     }
 
     @Override
     public void evict(String key) {
-        cacheStore.delete(cacheKey(key));
+        String cacheKey = cacheKey(key);
+        cacheStore.delete(cacheKey);
+        if (nearCache != null) nearCache.invalidate(cacheKey);
     }
 
     public Optional<String> get(String key) {
-        byte[] result = cacheStore.get(cacheKey(key));
-        if (result == null) return Optional.empty();
-        return Optional.of(new String(result, Charsets.UTF_8));
+        Entry<T> entry = read(cacheKey(key));
+        if (entry == null) return Optional.empty();
+        return Optional.of(new String(jsonCodec.encode(entry.value), Charsets.UTF_8));
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    // only local cache store evicts by size, redis evicts by its own maxmemory policy
+    public long evictions() {
+        if (cacheStore instanceof LocalCacheStore) return ((LocalCacheStore) cacheStore).evictions(name);
+        return 0;
     }
 
     private String cacheKey(String key) {
+        if (timestamped()) return name + TIMESTAMPED_KEY_SEGMENT + key;
         return name + ":" + key;
     }
+
+    static final class Entry<T> {
+        final T value;
+        final long writeTime;
+        final long expirationTime;  // 0 means unknown, e.g. plain json value
+
+        Entry(T value, long writeTime, long expirationTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.expirationTime = expirationTime;
+        }
+    }
 }
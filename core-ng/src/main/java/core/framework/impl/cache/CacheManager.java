@@ -1,8 +1,11 @@
 package core.framework.impl.cache;
 
-import core.framework.api.cache.Cache;
 import core.framework.api.util.Exceptions;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
+import core.framework.impl.async.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
 import java.time.Duration;
@@ -10,22 +13,66 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
 /**
  * @author neo
  */
 public class CacheManager {
+    private final Logger logger = LoggerFactory.getLogger(CacheManager.class);
     private final CacheStore cacheStore;
     private final Map<String, CacheImpl<?>> caches = Maps.newHashMap();
+    private final List<LocalCacheStore> localCacheStores = Lists.newArrayList();
+    private final ExecutorService refreshExecutor = ThreadPools.cachedThreadPool(Runtime.getRuntime().availableProcessors(), "cache-refresh-");
+    private NearCache nearCache;
 
     public CacheManager(CacheStore cacheStore) {
         this.cacheStore = cacheStore;
+        if (cacheStore instanceof LocalCacheStore) localCacheStores.add((LocalCacheStore) cacheStore);
     }
 
-    public <T> Cache<T> add(String name, Type valueType, Duration duration) {
+    public void nearCache(NearCache nearCache) {
+        if (!caches.isEmpty()) throw new Error("near cache must be configured before adding cache");
+        this.nearCache = nearCache;
+    }
+
+    public <T> CacheImpl<T> add(String name, Type valueType, Duration duration) {
+        return add(name, valueType, duration, cacheStore);
+    }
+
+    // with local cache store, the cache gets its own store bounded by maxSize in bytes, so it won't be flushed by other caches
+    public <T> CacheImpl<T> add(String name, Type valueType, Duration duration, long maxSize) {
+        if (!(cacheStore instanceof LocalCacheStore)) {
+            logger.info("max size only applies to local cache store, ignore, name={}, maxSize={}", name, maxSize);
+            return add(name, valueType, duration, cacheStore);
+        }
+        LocalCacheStore localCacheStore = new LocalCacheStore(maxSize);
+        CacheImpl<T> cache = add(name, valueType, duration, localCacheStore);
+        localCacheStores.add(localCacheStore);
+        return cache;
+    }
+
+    // with local cache store, keep values as objects to skip json serialization on hit, values are shared between callers,
+    // so value type must be immutable, or provide copier to copy value in and out, redis cache falls back to json
+    public <T> CacheImpl<T> addObjectCache(String name, Type valueType, Duration duration, UnaryOperator<T> copier) {
+        CacheImpl<T> cache = add(name, valueType, duration, cacheStore);
+        if (cacheStore instanceof LocalCacheStore) {
+            cache.objectStore = (LocalCacheStore) cacheStore;
+            cache.copier = copier;
+        } else {
+            logger.info("object mode only applies to local cache store, ignore, name={}", name);
+        }
+        return cache;
+    }
+
+    private <T> CacheImpl<T> add(String name, Type valueType, Duration duration, CacheStore cacheStore) {
         new CacheTypeValidator(valueType).validate();
 
         CacheImpl<T> cache = new CacheImpl<>(name, valueType, duration, cacheStore);
+        cache.nearCache = nearCache;
+        cache.refreshExecutor = refreshExecutor;
         CacheImpl<?> previous = caches.putIfAbsent(name, cache);
         if (previous != null) throw Exceptions.error("duplicated cache name found, name={}", name);
         return cache;
@@ -35,6 +82,22 @@ public class CacheManager {
         return Optional.ofNullable(caches.get(name));
     }
 
+    public void cleanupLocalCacheStores() {
+        for (LocalCacheStore localCacheStore : localCacheStores) {
+            localCacheStore.cleanup();
+        }
+    }
+
+    public void stop() {
+        logger.info("stop cache refresh executor");
+        refreshExecutor.shutdown();
+        try {
+            refreshExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            logger.warn("failed to wait cache refresh to finish", e);
+        }
+    }
+
     public List<CacheImpl<?>> caches() {
         return new ArrayList<>(caches.values());
     }
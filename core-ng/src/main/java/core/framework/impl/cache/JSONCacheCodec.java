@@ -0,0 +1,30 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.json.JSONReader;
+import core.framework.impl.json.JSONWriter;
+
+import java.lang.reflect.Type;
+
+/**
+ * @author neo
+ */
+public final class JSONCacheCodec<T> implements CacheCodec<T> {
+    private final JSONReader<T> reader;
+    private final JSONWriter<T> writer;
+
+    public JSONCacheCodec(Type valueType) {
+        reader = JSONReader.of(valueType);
+        writer = JSONWriter.of(valueType);
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        return writer.toJSON(value);
+    }
+
+    @Override
+    public T decode(byte[] bytes, int offset, int length) {
+        if (BinaryCacheCodec.isBinary(bytes[offset])) return null;     // written by binary codec before switching back to json
+        return reader.fromJSON(bytes, offset, length);
+    }
+}
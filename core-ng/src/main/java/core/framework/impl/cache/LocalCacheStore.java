@@ -6,22 +6,65 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * bounded by total size of values in bytes, evict with segmented LRU,
+ * new item enters probation segment, and is promoted to protected segment when accessed again,
+ * so one time burst of unique keys only flushes probation segment but not frequently used items.
+ * <p>
+ * lookup is lock free, the LRU order is maintained under lock, read skips recording access if lock is contended
+ *
  * @author neo
  */
 public class LocalCacheStore implements CacheStore {
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    final long maxSize;
     private final Logger logger = LoggerFactory.getLogger(LocalCacheStore.class);
     private final Map<String, CacheItem> caches = Maps.newConcurrentHashMap();
+    private final Map<String, LongAdder> evictions = Maps.newConcurrentHashMap();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final CacheItem probation = new CacheItem(null, null, 0, 0);      // sentinel of circular list, next is most recently used
+    private final CacheItem protect = new CacheItem(null, null, 0, 0);
+    private final long maxProtectedSize;
+    private long probationSize;
+    private long protectedSize;
+
+    public LocalCacheStore() {
+        this(Runtime.getRuntime().maxMemory() / 10);  // by default, use max 10% of heap
+    }
+
+    public LocalCacheStore(long maxSize) {
+        this.maxSize = maxSize;
+        maxProtectedSize = maxSize * PROTECTED_PERCENTAGE / 100;
+        probation.prev = probation;
+        probation.next = probation;
+        protect.prev = protect;
+        protect.next = protect;
+    }
 
     @Override
     public byte[] get(String key) {
+        return (byte[]) getObject(key);
+    }
+
+    // object mode, value is kept as it is without serialization, size is estimated by caller
+    public Object getObject(String key) {
         CacheItem item = caches.get(key);
         if (item == null) return null;
         if (item.expired(System.currentTimeMillis())) {
-            caches.remove(key);
+            delete(key, item);
             return null;
         }
+        if (lock.tryLock()) {
+            try {
+                recordAccess(item);
+            } finally {
+                lock.unlock();
+            }
+        }
         return item.value;
     }
 
@@ -37,8 +80,24 @@ public class LocalCacheStore implements CacheStore {
 
     @Override
     public void put(String key, byte[] value, Duration expiration) {
+        putObject(key, value, value.length, expiration);
+    }
+
+    public void putObject(String key, Object value, int size, Duration expiration) {
         long now = System.currentTimeMillis();
-        caches.put(key, new CacheItem(value, now + expiration.toMillis()));
+        CacheItem item = new CacheItem(key, value, size, now + expiration.toMillis());
+        CacheItem previous = caches.put(key, item);
+        lock.lock();
+        try {
+            if (previous != null) unlink(previous);
+            if (caches.get(key) == item) {  // item may be replaced or deleted by other thread before acquiring lock
+                link(probation, item);
+                probationSize += item.size;
+                evict();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -48,27 +107,115 @@ public class LocalCacheStore implements CacheStore {
 
     @Override
     public void delete(String key) {
-        caches.remove(key);
+        CacheItem item = caches.remove(key);
+        if (item != null) unlinkWithLock(item);
+    }
+
+    private void delete(String key, CacheItem item) {
+        if (caches.remove(key, item)) unlinkWithLock(item);
     }
 
     public void cleanup() {
         logger.info("clean up local cache store");
         long now = System.currentTimeMillis();
-        caches.forEach((key, value) -> {
-            if (value.expired(now)) caches.remove(key);
+        caches.forEach((key, item) -> {
+            if (item.expired(now)) delete(key, item);
         });
     }
 
-    public static class CacheItem {
-        final byte[] value;
+    public long evictions(String cacheName) {
+        LongAdder count = evictions.get(cacheName);
+        return count == null ? 0 : count.sum();
+    }
+
+    long size() {
+        lock.lock();
+        try {
+            return probationSize + protectedSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordAccess(CacheItem item) {
+        if (item.prev == null) return;  // removed already
+        boolean promoted = !item.protect;
+        unlink(item);
+        link(protect, item);
+        protectedSize += item.size;
+        if (promoted) {
+            while (protectedSize > maxProtectedSize && protect.prev != protect) {   // demote least recently used protected item to probation
+                CacheItem demoted = protect.prev;
+                unlink(demoted);
+                link(probation, demoted);
+                probationSize += demoted.size;
+            }
+        }
+    }
+
+    private void evict() {
+        while (probationSize + protectedSize > maxSize) {
+            CacheItem item = probation.prev != probation ? probation.prev : protect.prev;
+            if (item == protect) return;   // both segments are empty
+            unlink(item);
+            caches.remove(item.key, item);
+            evictions.computeIfAbsent(cacheName(item.key), key -> new LongAdder()).increment();
+        }
+    }
+
+    private String cacheName(String key) {
+        int index = key.indexOf(':');
+        return index < 0 ? key : key.substring(0, index);
+    }
+
+    private void unlinkWithLock(CacheItem item) {
+        lock.lock();
+        try {
+            unlink(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // add as most recently used
+    private void link(CacheItem head, CacheItem item) {
+        item.prev = head;
+        item.next = head.next;
+        head.next.prev = item;
+        head.next = item;
+        item.protect = head == protect;
+    }
+
+    private void unlink(CacheItem item) {
+        if (item.prev == null) return;  // not linked
+        item.prev.next = item.next;
+        item.next.prev = item.prev;
+        item.prev = null;
+        item.next = null;
+        if (item.protect) {
+            protectedSize -= item.size;
+        } else {
+            probationSize -= item.size;
+        }
+    }
+
+    static final class CacheItem {
+        final String key;
+        final Object value;
+        final int size;
         final long expirationTime;
+        CacheItem prev;     // guarded by lock
+        CacheItem next;
+        boolean protect;
 
-        public CacheItem(byte[] value, long expirationTime) {
+        CacheItem(String key, Object value, int size, long expirationTime) {
+            this.key = key;
             this.value = value;
+            this.size = size;
             this.expirationTime = expirationTime;
         }
 
-        public boolean expired(long now) {
+        boolean expired(long now) {
             return now >= expirationTime;
         }
     }
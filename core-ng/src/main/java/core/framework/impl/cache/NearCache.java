@@ -0,0 +1,91 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * local cache of deserialized values in front of remote cache store, to save network round trip and deserialization on hot keys,
+ * values are shared between threads, so must not be modified by application
+ *
+ * @author neo
+ */
+public final class NearCache {
+    private final Map<String, Item> items = Maps.newConcurrentHashMap();
+    private final ReentrantLock evictLock = new ReentrantLock();
+    private final long durationInMs;
+    private final int maxSize;
+    NearCacheInvalidator invalidator;
+
+    public NearCache(Duration duration, int maxSize) {
+        durationInMs = duration.toMillis();
+        this.maxSize = maxSize;
+    }
+
+    Object get(String key) {
+        Item item = items.get(key);
+        if (item == null) return null;
+        if (item.expired(System.currentTimeMillis())) {
+            items.remove(key, item);
+            return null;
+        }
+        return item.value;
+    }
+
+    void put(String key, Object value) {
+        if (items.size() >= maxSize) evict();
+        items.put(key, new Item(value, System.currentTimeMillis() + durationInMs));
+    }
+
+    // evict locally, and notify other nodes if invalidator configured
+    void invalidate(String key) {
+        items.remove(key);
+        if (invalidator != null) invalidator.publish(key);
+    }
+
+    void evictLocally(String key) {
+        items.remove(key);
+    }
+
+    public void clear() {
+        items.clear();
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    // remove expired items first, then arbitrary items (hash order is close to random) till 90% of max size, only one thread does eviction at a time
+    private void evict() {
+        if (!evictLock.tryLock()) return;
+        try {
+            long now = System.currentTimeMillis();
+            items.values().removeIf(item -> item.expired(now));
+            int target = maxSize * 9 / 10;
+            Iterator<Item> iterator = items.values().iterator();
+            while (items.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    static final class Item {
+        final Object value;
+        final long expirationTime;
+
+        Item(Object value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean expired(long now) {
+            return now >= expirationTime;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Strings;
+import core.framework.api.util.Threads;
+import core.framework.impl.redis.ShardedRedisImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * broadcast evicted cache keys thru redis pub/sub, to invalidate near cache on all nodes,
+ * message format is {nodeId}:{cacheKey}, node ignores its own message
+ *
+ * @author neo
+ */
+public final class NearCacheInvalidator {
+    static final String CHANNEL = "cache-invalidation";
+
+    private final Logger logger = LoggerFactory.getLogger(NearCacheInvalidator.class);
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ShardedRedisImpl redis;
+    private final NearCache nearCache;
+    private final AtomicBoolean stop = new AtomicBoolean(false);
+    private final Thread subscriberThread;
+    private final BinaryJedisPubSub listener = new BinaryJedisPubSub() {
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            String cacheKey = cacheKey(new String(message, Charsets.UTF_8));
+            if (cacheKey != null) nearCache.evictLocally(cacheKey);
+        }
+
+        @Override
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            nearCache.clear();  // invalidation messages may be missed before (re)connected
+        }
+    };
+
+    public NearCacheInvalidator(ShardedRedisImpl redis, NearCache nearCache) {
+        this.redis = redis;
+        this.nearCache = nearCache;
+        nearCache.invalidator = this;
+
+        subscriberThread = new Thread(() -> {
+            logger.info("near cache invalidator thread started");
+            while (!stop.get()) {
+                try {
+                    redis.subscribe(CHANNEL, listener);
+                } catch (Throwable e) {
+                    if (!stop.get()) {
+                        nearCache.clear();
+                        logger.warn("failed to subscribe cache invalidation, retry in 10 seconds", e);
+                        Threads.sleepRoughly(Duration.ofSeconds(10));
+                    }
+                }
+            }
+        });
+        subscriberThread.setName("near-cache-invalidator");
+        subscriberThread.setDaemon(true);
+    }
+
+    public void start() {
+        subscriberThread.start();
+    }
+
+    public void stop() {
+        logger.info("stop near cache invalidator");
+        stop.set(true);
+        if (listener.isSubscribed()) listener.unsubscribe();
+        subscriberThread.interrupt();
+    }
+
+    void publish(String cacheKey) {
+        try {
+            redis.publish(CHANNEL, Strings.bytes(nodeId + ":" + cacheKey));
+        } catch (JedisConnectionException e) {
+            logger.warn("failed to connect to redis, error={}", e.getMessage(), e);
+        }
+    }
+
+    String cacheKey(String message) {
+        int index = message.indexOf(':');
+        if (index < 0) return null;
+        if (message.regionMatches(0, nodeId, 0, index) && index == nodeId.length()) return null;    // published by current node
+        return message.substring(index + 1);
+    }
+}
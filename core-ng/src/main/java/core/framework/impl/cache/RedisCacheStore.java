@@ -1,7 +1,7 @@
 package core.framework.impl.cache;
 
 import core.framework.api.util.Maps;
-import core.framework.impl.redis.RedisImpl;
+import core.framework.impl.redis.ShardedRedisImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.exceptions.JedisConnectionException;
@@ -15,9 +15,9 @@ import java.util.Map;
 public class RedisCacheStore implements CacheStore {
     private final Logger logger = LoggerFactory.getLogger(RedisCacheStore.class);
 
-    private final RedisImpl redis;
+    private final ShardedRedisImpl redis;
 
-    public RedisCacheStore(RedisImpl redis) {
+    public RedisCacheStore(ShardedRedisImpl redis) {
         this.redis = redis;
     }
 
@@ -0,0 +1,42 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Maps;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * only one load per key is in flight on this node, other threads wait for its result
+ *
+ * @author neo
+ */
+final class SingleFlight<V> {
+    private final Map<String, CompletableFuture<V>> calls = Maps.newConcurrentHashMap();
+
+    // return in flight call of the key, or register given call and return null, then caller must complete and finish the call
+    CompletableFuture<V> register(String key, CompletableFuture<V> call) {
+        return calls.putIfAbsent(key, call);
+    }
+
+    void finish(String key, CompletableFuture<V> call) {
+        calls.remove(key, call);
+    }
+
+    V await(CompletableFuture<V> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new Error(cause);
+        }
+    }
+
+    int size() {
+        return calls.size();
+    }
+}
@@ -1,12 +1,14 @@
 package core.framework.impl.db;
 
 import core.framework.api.db.Database;
+import core.framework.api.db.ReadFromPrimary;
 import core.framework.api.db.Repository;
 import core.framework.api.db.Transaction;
 import core.framework.api.db.UncheckedSQLException;
 import core.framework.api.log.ActionLogContext;
 import core.framework.api.log.Markers;
 import core.framework.api.util.Exceptions;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import core.framework.api.util.StopWatch;
 import core.framework.impl.resource.Pool;
@@ -23,12 +25,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * @author neo
  */
 public final class DatabaseImpl implements Database {
     public final Pool<Connection> pool;
+    public final List<Pool<Connection>> replicaPools = Lists.newArrayList();
     public final DatabaseOperation operation;
 
     private final Logger logger = LoggerFactory.getLogger(DatabaseImpl.class);
@@ -36,6 +41,8 @@ public final class DatabaseImpl implements Database {
     private final Properties driverProperties = new Properties();
 
     public int tooManyRowsReturnedThreshold = 1000;
+    public int batchMaxRows = 1000;
+    public long batchMaxPacketSize = 4 * 1024 * 1024;   // default max_allowed_packet of mysql
     long slowOperationThresholdInNanos = Duration.ofSeconds(5).toNanos();
     private Duration timeout;
     private Driver driver;
@@ -50,16 +57,25 @@ public final class DatabaseImpl implements Database {
         rowMappers.put(Boolean.class, new RowMapper.BooleanRowMapper());
         rowMappers.put(LocalDateTime.class, new RowMapper.LocalDateTimeRowMapper());
 
-        pool = new Pool<>(this::createConnection, Connection::close);
+        pool = createPool(() -> createConnection(url));
         pool.name("db");
         pool.size(5, 50);    // default optimization for AWS medium/large instances
-        pool.maxIdleTime(Duration.ofHours(2));  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
 
         operation = new DatabaseOperation(pool);
         timeout(Duration.ofSeconds(15));
     }
 
-    private Connection createConnection() {
+    private Pool<Connection> createPool(Supplier<Connection> factory) {
+        Pool<Connection> pool = new Pool<>(factory, connection -> {
+            operation.removeStatementCache(connection);
+            connection.close();
+        });
+        pool.maxIdleTime(Duration.ofHours(2));  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
+        pool.validator(connection -> connection.isValid((int) timeout.getSeconds()));
+        return pool;
+    }
+
+    private Connection createConnection(String url) {
         if (url == null) throw new Error("url must not be null");
         try {
             return driver.connect(url, driverProperties);
@@ -71,6 +87,7 @@ public final class DatabaseImpl implements Database {
     public void close() {
         logger.info("close database client, url={}", url);
         pool.close();
+        replicaPools.forEach(Pool::close);
     }
 
     public void user(String user) {
@@ -85,6 +102,7 @@ public final class DatabaseImpl implements Database {
         this.timeout = timeout;
         operation.queryTimeoutInSeconds = (int) timeout.getSeconds();
         pool.checkoutTimeout(timeout);
+        replicaPools.forEach(replicaPool -> replicaPool.checkoutTimeout(timeout));
 
         if (url != null && url.startsWith("jdbc:mysql:")) {
             driverProperties.put("connectTimeout", String.valueOf(timeout.toMillis()));
@@ -100,6 +118,8 @@ public final class DatabaseImpl implements Database {
         try {
             if (url.startsWith("jdbc:mysql://")) {
                 driver = (Driver) Class.forName("com.mysql.jdbc.Driver").newInstance();
+                operation.streamingFetchSize = Integer.MIN_VALUE;
+                statementCacheSize(operation.statementCacheSize);
                 timeout(timeout);
             } else if (url.startsWith("jdbc:hsqldb:")) {
                 driver = (Driver) Class.forName("org.hsqldb.jdbc.JDBCDriver").newInstance();
@@ -111,6 +131,33 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    // with statement cache, use server side prepared statement for mysql, to only parse sql once per connection,
+    // mysql limits total server side statements of all connections by max_prepared_stmt_count (default 16382),
+    // so size * max pool size of all app instances and replicas must stay well below it
+    public void statementCacheSize(int size) {
+        operation.statementCacheSize = size;
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            driverProperties.put("useServerPrepStmts", String.valueOf(size > 0));
+        }
+    }
+
+    // select/selectOne outside transaction read from replicas, replica uses same driver, user and password as primary,
+    // return created pools, which are named after primary pool with index of replica
+    public List<Pool<Connection>> replicas(String... urls) {
+        if (!replicaPools.isEmpty()) throw new Error("replicas are configured, please only configure replicas once");
+        for (String url : urls) {
+            if (!url.startsWith("jdbc:")) throw Exceptions.error("jdbc url must start with \"jdbc:\", url={}", url);
+            logger.info("add database replica, url={}", url);
+            Pool<Connection> replicaPool = createPool(() -> createConnection(url));
+            replicaPool.name(pool.name() + "-replica-" + replicaPools.size());
+            replicaPool.size(pool.minSize(), pool.maxSize());
+            replicaPool.checkoutTimeout(timeout);
+            replicaPools.add(replicaPool);
+            operation.transactionManager.replicas.add(new ReplicaPool(replicaPool));
+        }
+        return replicaPools;
+    }
+
     public void slowOperationThreshold(Duration slowOperationThreshold) {
         slowOperationThresholdInNanos = slowOperationThreshold.toNanos();
     }
@@ -136,6 +183,11 @@ public final class DatabaseImpl implements Database {
         return operation.transactionManager.beginTransaction();
     }
 
+    @Override
+    public ReadFromPrimary readFromPrimary() {
+        return operation.transactionManager.readFromPrimary();
+    }
+
     @Override
     public <T> List<T> select(String sql, Class<T> viewClass, Object... params) {
         StopWatch watch = new StopWatch();
@@ -164,6 +216,20 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    @Override
+    public <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params) {
+        StopWatch watch = new StopWatch();
+        int rows = 0;
+        try {
+            rows = operation.forEach(sql, rowMapper(viewClass), params, consumer);
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("db", elapsedTime);
+            // not check slow operation, as elapsed time includes time of consumer
+            logger.debug("forEach, sql={}, params={}, rows={}, elapsedTime={}", sql, params, rows, elapsedTime);
+        }
+    }
+
     @Override
     public int execute(String sql, Object... params) {
         StopWatch watch = new StopWatch();
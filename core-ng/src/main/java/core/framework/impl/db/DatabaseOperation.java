@@ -1,8 +1,11 @@
 package core.framework.impl.db;
 
 import core.framework.api.db.UncheckedSQLException;
+import core.framework.api.log.ActionLogContext;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.api.util.StopWatch;
 import core.framework.impl.resource.Pool;
 import core.framework.impl.resource.PoolItem;
 
@@ -17,40 +20,54 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
  */
 public class DatabaseOperation {
     public final TransactionManager transactionManager;
+    public final StatementCacheMetrics statementCacheMetrics;
     final EnumDBMapper enumMapper = new EnumDBMapper();
+    private final Map<Connection, StatementCache> statementCaches = Maps.newConcurrentHashMap();
     int queryTimeoutInSeconds;
+    int streamingFetchSize = 1000;     // for mysql, Integer.MIN_VALUE makes driver stream rows one by one
+    int statementCacheSize = 25;       // max cached statements per connection, 0 means not cache, keep small as mysql limits server side statements globally
 
     public DatabaseOperation(Pool<Connection> pool) {
         transactionManager = new TransactionManager(pool);
+        statementCacheMetrics = new StatementCacheMetrics(pool);
     }
 
     // for the boilerplate code, it is mainly for performance and clear purpose, as framework code, it's more important than DRY
     // make a lot of lambda and template pattern will make it harder to read and trace, also impact the mem usage and GC
     int update(String sql, Object[] params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = prepareStatement(connection.resource, sql, false);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return statement.executeUpdate();
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            discardStatement(connection.resource, sql);
             throw new UncheckedSQLException(e);
         } finally {
+            closeStatement(statement);
             transactionManager.releaseConnection(connection);
         }
     }
 
     int[] batchUpdate(String sql, List<Object[]> params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        PreparedStatement statement = null;
+        try {
+            statement = prepareStatement(connection.resource, sql, false);
             statement.setQueryTimeout(queryTimeoutInSeconds);
+            statement.clearBatch();     // cached statement may have batch left if previous call failed before execution
             for (Object[] batchParams : params) {
                 setParams(statement, batchParams);
                 statement.addBatch();
@@ -58,8 +75,10 @@ public class DatabaseOperation {
             return statement.executeBatch();
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            discardStatement(connection.resource, sql);
             throw new UncheckedSQLException(e);
         } finally {
+            closeStatement(statement);
             transactionManager.releaseConnection(connection);
         }
     }
@@ -67,42 +86,159 @@ public class DatabaseOperation {
     <T> Optional<T> selectOne(String sql, RowMapper<T> mapper, Object[] params) {
         validateSelectSQL(sql);
 
-        PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        ReplicaPool replica = transactionManager.replica();
+        PoolItem<Connection> connection = replica == null ? transactionManager.getConnection() : replica.borrowItem();
+        PreparedStatement statement = null;
+        try {
+            statement = prepareStatement(connection.resource, sql, false);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return fetchOne(statement, mapper);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            discardStatement(connection.resource, sql);
             throw new UncheckedSQLException(e);
         } finally {
-            transactionManager.releaseConnection(connection);
+            closeStatement(statement);
+            if (replica == null) transactionManager.releaseConnection(connection);
+            else replica.returnItem(connection);
         }
     }
 
     <T> List<T> select(String sql, RowMapper<T> mapper, Object[] params) {
         validateSelectSQL(sql);
 
-        PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql)) {
+        ReplicaPool replica = transactionManager.replica();
+        PoolItem<Connection> connection = replica == null ? transactionManager.getConnection() : replica.borrowItem();
+        PreparedStatement statement = null;
+        try {
+            statement = prepareStatement(connection.resource, sql, false);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             return fetch(statement, mapper);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
+            discardStatement(connection.resource, sql);
             throw new UncheckedSQLException(e);
         } finally {
-            transactionManager.releaseConnection(connection);
+            closeStatement(statement);
+            if (replica == null) transactionManager.releaseConnection(connection);
+            else replica.returnItem(connection);
+        }
+    }
+
+    // return number of rows
+    <T> int forEach(String sql, RowMapper<T> mapper, Object[] params, Consumer<T> consumer) {
+        validateSelectSQL(sql);
+        if (streamingFetchSize == Integer.MIN_VALUE && transactionManager.inTransaction())
+            throw Exceptions.error("forEach within transaction is not supported, mysql streaming result set blocks all other queries on the connection, please use select instead, sql={}", sql);
+
+        ReplicaPool replica = transactionManager.replica();
+        PoolItem<Connection> connection = replica == null ? transactionManager.getConnection() : replica.borrowItem();
+        try (PreparedStatement statement = connection.resource.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            statement.setFetchSize(streamingFetchSize);
+            setParams(statement, params);
+            return fetch(statement, mapper, consumer);
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            throw new UncheckedSQLException(e);
+        } finally {
+            if (replica == null) transactionManager.releaseConnection(connection);
+            else replica.returnItem(connection);
         }
     }
 
     Optional<Long> insert(String sql, Object[] params) {
         PoolItem<Connection> connection = transactionManager.getConnection();
-        try (PreparedStatement statement = connection.resource.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        PreparedStatement statement = null;
+        try {
+            statement = prepareStatement(connection.resource, sql, true);
             statement.setQueryTimeout(queryTimeoutInSeconds);
             setParams(statement, params);
             statement.executeUpdate();
             return fetchGeneratedKey(statement);
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            discardStatement(connection.resource, sql);
+            throw new UncheckedSQLException(e);
+        } finally {
+            closeStatement(statement);
+            transactionManager.releaseConnection(connection);
+        }
+    }
+
+    // statement is cached per connection and kept open for reuse, connection closes its statements when it is closed
+    private PreparedStatement prepareStatement(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (statementCacheSize <= 0) return prepareNewStatement(connection, sql, returnGeneratedKeys);
+
+        StatementCache cache = statementCaches.computeIfAbsent(connection, key -> new StatementCache(statementCacheSize));
+        PreparedStatement statement = cache.get(sql, returnGeneratedKeys);
+        if (statement != null) {
+            statementCacheMetrics.hit();
+            statement.clearParameters();
+            return statement;
+        }
+        statementCacheMetrics.miss();
+        StopWatch watch = new StopWatch();
+        statement = prepareNewStatement(connection, sql, returnGeneratedKeys);
+        cache.put(sql, returnGeneratedKeys, statement);
+        ActionLogContext.track("db_prepare", watch.elapsedTime());     // number of db_prepare against db in action log shows cache misses
+        return statement;
+    }
+
+    private PreparedStatement prepareNewStatement(Connection connection, String sql, boolean returnGeneratedKeys) throws SQLException {
+        if (returnGeneratedKeys) return connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        return connection.prepareStatement(sql);
+    }
+
+    // remove failed statement from cache, as its state is unknown
+    private void discardStatement(Connection connection, String sql) {
+        StatementCache cache = statementCaches.get(connection);
+        if (cache != null) cache.remove(sql);
+    }
+
+    private void closeStatement(PreparedStatement statement) {
+        if (statement == null || statementCacheSize > 0) return;
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+    }
+
+    void removeStatementCache(Connection connection) {
+        statementCaches.remove(connection);
+    }
+
+    int cachedStatementCount() {
+        return statementCaches.values().stream().mapToInt(StatementCache::size).sum();
+    }
+
+    // multi-row sql varies with number of rows and may have thousands of params, so it's not cached,
+    // to not evict hot statements from cache or take server side statement slots
+    int updateRows(String sql, Object[] params) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try (PreparedStatement statement = prepareNewStatement(connection.resource, sql, false)) {
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            setParams(statement, params);
+            return statement.executeUpdate();
+        } catch (SQLException e) {
+            Connections.checkConnectionStatus(connection, e);
+            throw new UncheckedSQLException(e);
+        } finally {
+            transactionManager.releaseConnection(connection);
+        }
+    }
+
+    // return generated keys of all rows for multi-row insert, statement is not cached as updateRows()
+    List<Long> insertRows(String sql, Object[] params) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try (PreparedStatement statement = prepareNewStatement(connection.resource, sql, true)) {
+            statement.setQueryTimeout(queryTimeoutInSeconds);
+            setParams(statement, params);
+            statement.executeUpdate();
+            return fetchGeneratedKeys(statement);
         } catch (SQLException e) {
             Connections.checkConnectionStatus(connection, e);
             throw new UncheckedSQLException(e);
@@ -141,6 +277,18 @@ public class DatabaseOperation {
         }
     }
 
+    private <T> int fetch(PreparedStatement statement, RowMapper<T> mapper, Consumer<T> consumer) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            ResultSetWrapper wrapper = new ResultSetWrapper(resultSet);
+            int rows = 0;
+            while (resultSet.next()) {
+                consumer.accept(mapper.map(wrapper));
+                rows++;
+            }
+            return rows;
+        }
+    }
+
     // the LAST_INSERT_ID() function of mysql returns BIGINT, so here it uses Long
     // http://dev.mysql.com/doc/refman/5.7/en/information-functions.html
     private Optional<Long> fetchGeneratedKey(PreparedStatement statement) throws SQLException {
@@ -152,6 +300,16 @@ public class DatabaseOperation {
         return Optional.empty();
     }
 
+    private List<Long> fetchGeneratedKeys(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            List<Long> results = Lists.newArrayList();
+            while (keys.next()) {
+                results.add(keys.getLong(1));
+            }
+            return results;
+        }
+    }
+
     private void setParams(PreparedStatement statement, Object[] params) throws SQLException {
         int index = 1;
         if (params != null) {
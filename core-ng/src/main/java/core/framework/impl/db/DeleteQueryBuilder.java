@@ -28,4 +28,17 @@ final class DeleteQueryBuilder {
 
         return builder.toString();
     }
+
+    // for entity with single column primary key, return prefix of batch delete sql, e.g. "DELETE FROM table WHERE id IN (", otherwise return null
+    static String buildBatchPrefix(Class<?> entityClass) {
+        String primaryKeyColumn = null;
+        for (Field field : Classes.instanceFields(entityClass)) {
+            if (field.isAnnotationPresent(PrimaryKey.class)) {
+                if (primaryKeyColumn != null) return null;
+                primaryKeyColumn = field.getDeclaredAnnotation(Column.class).name();
+            }
+        }
+        Table table = entityClass.getDeclaredAnnotation(Table.class);
+        return "DELETE FROM " + table.name() + " WHERE " + primaryKeyColumn + " IN (";
+    }
 }
@@ -17,6 +17,10 @@ import java.util.function.Function;
  */
 final class InsertQuery<T> {
     public final String sql;
+    final int columns;
+    final boolean autoIncrement;
+    private final String sqlPrefix;
+    private final String values;
     private final Function<T, Object[]> paramBuilder;
 
     InsertQuery(Class<T> entityClass) {
@@ -29,9 +33,13 @@ final class InsertQuery<T> {
 
         List<Field> fields = Classes.instanceFields(entityClass);
         int index = 0;
+        boolean autoIncrement = false;
         for (Field field : fields) {
             PrimaryKey primaryKey = field.getDeclaredAnnotation(PrimaryKey.class);
-            if (primaryKey != null && primaryKey.autoIncrement()) continue;
+            if (primaryKey != null && primaryKey.autoIncrement()) {
+                autoIncrement = true;
+                continue;
+            }
 
             Column column = field.getDeclaredAnnotation(Column.class);
             if (index > 0) builder.append(", ");
@@ -40,14 +48,20 @@ final class InsertQuery<T> {
             index++;
         }
 
-        builder.append(") VALUES (");
+        builder.append(") VALUES ");
+        sqlPrefix = builder.toString();
+
+        StringBuilder values = new StringBuilder("(");
         for (int i = 0; i < paramFields.size(); i++) {
-            if (i > 0) builder.append(", ");
-            builder.append('?');
+            if (i > 0) values.append(", ");
+            values.append('?');
         }
-        builder.append(')');
+        values.append(')');
+        this.values = values.toString();
 
-        sql = builder.toString();
+        sql = sqlPrefix + this.values;
+        columns = paramFields.size();
+        this.autoIncrement = autoIncrement;
 
         paramBuilder = paramBuilder(entityClass, paramFields);
     }
@@ -72,6 +86,17 @@ final class InsertQuery<T> {
             .build();
     }
 
+    // multi-row insert, e.g. INSERT INTO table (column1, column2) VALUES (?, ?), (?, ?)
+    String sql(int rows) {
+        if (rows == 1) return sql;
+        StringBuilder builder = new StringBuilder(sqlPrefix.length() + (values.length() + 2) * rows).append(sqlPrefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(values);
+        }
+        return builder.toString();
+    }
+
     Object[] params(T entity) {
         return paramBuilder.apply(entity);
     }
@@ -0,0 +1,34 @@
+package core.framework.impl.db;
+
+import core.framework.impl.resource.Pool;
+import core.framework.impl.resource.PoolItem;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author neo
+ */
+final class ReplicaPool {
+    final Pool<Connection> pool;
+    final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    ReplicaPool(Pool<Connection> pool) {
+        this.pool = pool;
+    }
+
+    PoolItem<Connection> borrowItem() {
+        outstandingRequests.incrementAndGet();
+        try {
+            return pool.borrowItem();
+        } catch (Throwable e) {
+            outstandingRequests.decrementAndGet();
+            throw e;
+        }
+    }
+
+    void returnItem(PoolItem<Connection> item) {
+        pool.returnItem(item);
+        outstandingRequests.decrementAndGet();
+    }
+}
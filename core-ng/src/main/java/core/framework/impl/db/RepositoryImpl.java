@@ -9,15 +9,17 @@ import core.framework.api.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * @author neo
  */
 public final class RepositoryImpl<T> implements Repository<T> {
+    private static final int MAX_PARAMS = 65535;    // max placeholders of one mysql prepared statement
+
     private final Logger logger = LoggerFactory.getLogger(RepositoryImpl.class);
 
     private final DatabaseImpl database;
@@ -26,6 +28,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
     private final InsertQuery<T> insertQuery;
     private final UpdateQuery<T> updateQuery;
     private final String deleteSQL;
+    private final String batchDeleteSQLPrefix;
     private final RowMapper<T> rowMapper;
 
     RepositoryImpl(DatabaseImpl database, Class<T> entityClass, RowMapper<T> rowMapper) {
@@ -35,6 +38,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         selectQuery = new SelectQuery(entityClass);
         updateQuery = new UpdateQuery<>(entityClass);
         deleteSQL = DeleteQueryBuilder.build(entityClass);
+        batchDeleteSQLPrefix = DeleteQueryBuilder.buildBatchPrefix(entityClass);
         this.rowMapper = rowMapper;
     }
 
@@ -55,6 +59,22 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    @Override
+    public void forEach(Query query, Consumer<T> consumer) {
+        StopWatch watch = new StopWatch();
+        String sql = selectQuery.sql(query.where, query.skip, query.limit);
+        Object[] params = selectQuery.params(query);
+        int rows = 0;
+        try {
+            rows = database.operation.forEach(sql, rowMapper, params, consumer);
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("db", elapsedTime);
+            // not check slow operation, as elapsed time includes time of consumer
+            logger.debug("forEach, sql={}, params={}, rows={}, elapsedTime={}", sql, params, rows, elapsedTime);
+        }
+    }
+
     @Override
     public Optional<T> selectOne(String where, Object... params) {
         StopWatch watch = new StopWatch();
@@ -132,41 +152,76 @@ public final class RepositoryImpl<T> implements Repository<T> {
     }
 
     @Override
-    public void batchInsert(List<T> entities) {
+    public List<Long> batchInsert(List<T> entities) {
         StopWatch watch = new StopWatch();
         entities.forEach(validator::validate);
-        String sql = insertQuery.sql;
-        List<Object[]> params = entities.stream()
-            .map(insertQuery::params)
-            .collect(Collectors.toList());
+        int maxRows = Math.min(database.batchMaxRows, MAX_PARAMS / Math.max(insertQuery.columns, 1));
+        List<Long> ids = Lists.newArrayList();
+        int chunks = 0;
         try {
-            database.operation.batchUpdate(sql, params);
+            // build params chunk by chunk, to keep memory flat regardless of number of entities
+            List<Object> params = Lists.newArrayList();
+            int rows = 0;
+            long size = 0;
+            for (T entity : entities) {
+                Object[] rowParams = insertQuery.params(entity);
+                long rowSize = estimatedSize(rowParams);
+                if (rows > 0 && (rows >= maxRows || size + rowSize > database.batchMaxPacketSize)) {
+                    insertRows(rows, params, ids);
+                    chunks++;
+                    params.clear();
+                    rows = 0;
+                    size = 0;
+                }
+                Collections.addAll(params, rowParams);
+                rows++;
+                size += rowSize;
+            }
+            if (rows > 0) {
+                insertRows(rows, params, ids);
+                chunks++;
+            }
+            return ids;
         } finally {
             long elapsedTime = watch.elapsedTime();
             ActionLogContext.track("db", elapsedTime);
-            logger.debug("batch insert, sql={}, size={}, elapsedTime={}", sql, entities.size(), elapsedTime);
+            logger.debug("batch insert, sql={}, size={}, chunks={}, elapsedTime={}", insertQuery.sql, entities.size(), chunks, elapsedTime);
             checkSlowOperation(elapsedTime);
         }
     }
 
+    private void insertRows(int rows, List<Object> params, List<Long> ids) {
+        String sql = insertQuery.sql(rows);
+        Object[] values = params.toArray();
+        if (insertQuery.autoIncrement) {
+            ids.addAll(database.operation.insertRows(sql, values));
+        } else {
+            database.operation.updateRows(sql, values);
+        }
+    }
+
+    // rough size of params in sql packet, string is counted as max utf-8 bytes, to keep chunk under max_allowed_packet of mysql
+    private long estimatedSize(Object[] params) {
+        long size = 0;
+        for (Object param : params) {
+            if (param instanceof String) size += ((String) param).length() * 3 + 4;
+            else size += 16;
+        }
+        return size;
+    }
+
     @Override
     public void batchDelete(List<?> primaryKeys) {
         StopWatch watch = new StopWatch();
-        List<Object[]> params = Lists.newArrayList();
-        for (Object primaryKey : primaryKeys) {
-            if (primaryKey instanceof Object[]) {
-                params.add((Object[]) primaryKey);
-            } else {
-                params.add(new Object[]{primaryKey});
-            }
-        }
+        int deletedRows = 0;
         try {
-            int[] deletedRows = database.operation.batchUpdate(deleteSQL, params);
-            for (int deletedRow : deletedRows) {
-                if (deletedRow != 1) {
-                    logger.warn(Markers.errorCode("UNEXPECTED_UPDATE_RESULT"), "deleted rows is not 1, rows={}", Arrays.toString(deletedRows));
-                    break;
-                }
+            int maxRows = Math.min(database.batchMaxRows, MAX_PARAMS);
+            for (int from = 0; from < primaryKeys.size(); from += maxRows) {
+                List<?> chunk = primaryKeys.subList(from, Math.min(from + maxRows, primaryKeys.size()));
+                deletedRows += batchDeleteSQLPrefix == null ? batchDeleteByCompositeKeys(chunk) : batchDeleteBySingleKeys(chunk);
+            }
+            if (deletedRows != primaryKeys.size()) {
+                logger.warn(Markers.errorCode("UNEXPECTED_UPDATE_RESULT"), "deleted rows does not match size of primary keys, rows={}, size={}", deletedRows, primaryKeys.size());
             }
         } finally {
             long elapsedTime = watch.elapsedTime();
@@ -176,6 +231,34 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    // collapse into DELETE FROM table WHERE id IN (...)
+    private int batchDeleteBySingleKeys(List<?> primaryKeys) {
+        StringBuilder builder = new StringBuilder(batchDeleteSQLPrefix);
+        Object[] params = new Object[primaryKeys.size()];
+        int index = 0;
+        for (Object primaryKey : primaryKeys) {
+            if (index > 0) builder.append(", ");
+            builder.append('?');
+            params[index] = primaryKey instanceof Object[] ? ((Object[]) primaryKey)[0] : primaryKey;
+            index++;
+        }
+        builder.append(')');
+        return database.operation.updateRows(builder.toString(), params);
+    }
+
+    private int batchDeleteByCompositeKeys(List<?> primaryKeys) {
+        List<Object[]> params = Lists.newArrayList();
+        for (Object primaryKey : primaryKeys) {
+            params.add((Object[]) primaryKey);
+        }
+        int[] results = database.operation.batchUpdate(deleteSQL, params);
+        int deletedRows = 0;
+        for (int result : results) {
+            deletedRows += result;
+        }
+        return deletedRows;
+    }
+
     private void checkTooManyRowsReturned(int size) {
         if (size > database.tooManyRowsReturnedThreshold) {
             logger.warn(Markers.errorCode("TOO_MANY_ROWS_RETURNED"), "too many rows returned, returnedRows={}", size);
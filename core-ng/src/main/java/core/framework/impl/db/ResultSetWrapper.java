@@ -22,6 +22,8 @@ final class ResultSetWrapper {
 
     // JDBC ResultSet doesn't support to ignore non-existed column, this to build index
     private final Map<String, Integer> columnIndex;
+    private String[] resolvedColumns;
+    private int[] resolvedIndexes;
 
     ResultSetWrapper(ResultSet resultSet) {
         this.resultSet = resultSet;
@@ -50,85 +52,65 @@ final class ResultSetWrapper {
         return index;
     }
 
-    int columnCount() {
-        return columnIndex.size();
+    // resolve indexes of columns once per result set for row mapper, 0 means column not exists,
+    // mapper passes same array instance for every row, so identity check is enough
+    int[] indexes(String[] columns) {
+        if (columns != resolvedColumns) {
+            int[] indexes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                Integer index = index(columns[i]);
+                indexes[i] = index == null ? 0 : index;
+            }
+            resolvedIndexes = indexes;
+            resolvedColumns = columns;
+        }
+        return resolvedIndexes;
     }
 
-    Integer getInt(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getInt(index);
+    int columnCount() {
+        return columnIndex.size();
     }
 
     Integer getInt(int index) throws SQLException {
+        if (index == 0) return null;
         int value = resultSet.getInt(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    Boolean getBoolean(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getBoolean(index);
-    }
-
     Boolean getBoolean(int index) throws SQLException {
+        if (index == 0) return null;
         boolean value = resultSet.getBoolean(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    Long getLong(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getLong(index);
-    }
-
     Long getLong(int index) throws SQLException {
+        if (index == 0) return null;
         long value = resultSet.getLong(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    Double getDouble(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getDouble(index);
-    }
-
     Double getDouble(int index) throws SQLException {
+        if (index == 0) return null;
         double value = resultSet.getDouble(index);
         if (resultSet.wasNull()) return null;
         return value;
     }
 
-    String getString(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getString(index);
-    }
-
     String getString(int index) throws SQLException {
+        if (index == 0) return null;
         return resultSet.getString(index);
     }
 
-    BigDecimal getBigDecimal(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getBigDecimal(index);
-    }
-
     BigDecimal getBigDecimal(int index) throws SQLException {
+        if (index == 0) return null;
         return resultSet.getBigDecimal(index);
     }
 
-    LocalDateTime getLocalDateTime(String column) throws SQLException {
-        Integer index = index(column);
-        if (index == null) return null;
-        return getLocalDateTime(index);
-    }
-
     LocalDateTime getLocalDateTime(int index) throws SQLException {
+        if (index == 0) return null;
         Timestamp timestamp = resultSet.getTimestamp(index);
         if (timestamp == null) return null;
         Instant instant = timestamp.toInstant();
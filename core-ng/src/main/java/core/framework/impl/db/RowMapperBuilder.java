@@ -30,39 +30,46 @@ final class RowMapperBuilder<T> {
         String entityClassName = entityClass.getCanonicalName();
 
         CodeBuilder builder = new CodeBuilder().append("public Object map({} resultSet) {\n", ResultSetWrapper.class.getCanonicalName());
+        builder.indent(1).append("int[] indexes = resultSet.indexes(columns);\n");
         builder.indent(1).append("{} entity = new {}();\n", entityClassName, entityClassName);
 
-        for (Field field : Classes.instanceFields(entityClass)) {
+        List<Field> fields = Classes.instanceFields(entityClass);
+        String[] columns = new String[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
             String fieldName = field.getName();
             Class<?> fieldClass = field.getType();
-            String column = field.getAnnotation(Column.class).name();
+            columns[i] = field.getAnnotation(Column.class).name();
+            String index = "indexes[" + i + "]";
             if (Integer.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getInt(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getInt({});\n", fieldName, index);
             } else if (String.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getString(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getString({});\n", fieldName, index);
             } else if (Boolean.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getBoolean(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getBoolean({});\n", fieldName, index);
             } else if (Long.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getLong(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getLong({});\n", fieldName, index);
             } else if (LocalDateTime.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getLocalDateTime(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getLocalDateTime({});\n", fieldName, index);
             } else if (Enum.class.isAssignableFrom(fieldClass)) {
                 registerEnumClass(fieldClass);
                 enumMapperFields.add(Strings.format("private final {} {}Mappings = new {}({}.class);", DBEnumMapper.class.getCanonicalName(), fieldName, DBEnumMapper.class.getCanonicalName(), fieldClass.getCanonicalName()));
-                builder.indent(1).append("entity.{} = ({}){}Mappings.getEnum(resultSet.getString(\"{}\"));\n", fieldName, fieldClass.getCanonicalName(), fieldName, column);
+                builder.indent(1).append("entity.{} = ({}){}Mappings.getEnum(resultSet.getString({}));\n", fieldName, fieldClass.getCanonicalName(), fieldName, index);
             } else if (Double.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getDouble(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getDouble({});\n", fieldName, index);
             } else if (BigDecimal.class.equals(fieldClass)) {
-                builder.indent(1).append("entity.{} = resultSet.getBigDecimal(\"{}\");\n", fieldName, column);
+                builder.indent(1).append("entity.{} = resultSet.getBigDecimal({});\n", fieldName, index);
             }
         }
         builder.indent(1).append("return entity;\n");
         builder.append("}");
 
         DynamicInstanceBuilder<RowMapper<T>> instanceBuilder = new DynamicInstanceBuilder<>(RowMapper.class, RowMapper.class.getCanonicalName() + "$" + entityClass.getSimpleName());
+        instanceBuilder.addField("private final java.lang.String[] columns;");
+        instanceBuilder.constructor(new Class<?>[]{String[].class}, "this.columns = $1;");
         enumMapperFields.forEach(instanceBuilder::addField);
         instanceBuilder.addMethod(builder.build());
-        return instanceBuilder.build();
+        return instanceBuilder.build((Object) columns);
     }
 
     @SuppressWarnings("unchecked")
@@ -0,0 +1,72 @@
+package core.framework.impl.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * lru cache of prepared statements of one connection keyed by sql, not thread safe, as connection is only used by one thread at a time
+ *
+ * @author neo
+ */
+final class StatementCache {
+    private final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+    private final Map<String, CachedStatement> statements;
+
+    StatementCache(int maxSize) {
+        statements = new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= maxSize) return false;
+                close(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement get(String sql, boolean returnGeneratedKeys) {
+        CachedStatement cachedStatement = statements.get(sql);
+        if (cachedStatement == null) return null;
+        if (cachedStatement.returnGeneratedKeys != returnGeneratedKeys) {
+            remove(sql);
+            return null;
+        }
+        return cachedStatement.statement;
+    }
+
+    void put(String sql, boolean returnGeneratedKeys, PreparedStatement statement) {
+        CachedStatement previous = statements.put(sql, new CachedStatement(statement, returnGeneratedKeys));
+        if (previous != null) close(previous.statement);
+    }
+
+    void remove(String sql) {
+        CachedStatement cachedStatement = statements.remove(sql);
+        if (cachedStatement != null) close(cachedStatement.statement);
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    private void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("failed to close statement, error={}", e.getMessage(), e);
+        }
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        final boolean returnGeneratedKeys;
+
+        CachedStatement(PreparedStatement statement, boolean returnGeneratedKeys) {
+            this.statement = statement;
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package core.framework.impl.db;
+
+import core.framework.impl.log.stat.Metrics;
+import core.framework.impl.resource.Pool;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * hits and misses of statement caches of all connections in pool, reported as delta since last collection, hit rate = hit / (hit + miss)
+ *
+ * @author neo
+ */
+public final class StatementCacheMetrics implements Metrics {
+    private final Pool<Connection> pool;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long previousHits;
+    private long previousMisses;
+
+    StatementCacheMetrics(Pool<Connection> pool) {
+        this.pool = pool;
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        String prefix = "statement_cache_" + pool.name() + "_";
+        long hits = this.hits.sum();
+        long misses = this.misses.sum();
+        stats.put(prefix + "hit", (double) (hits - previousHits));
+        stats.put(prefix + "miss", (double) (misses - previousMisses));
+        previousHits = hits;
+        previousMisses = misses;
+    }
+}
@@ -1,9 +1,11 @@
 package core.framework.impl.db;
 
 import core.framework.api.db.IsolationLevel;
+import core.framework.api.db.ReadFromPrimary;
 import core.framework.api.db.Transaction;
 import core.framework.api.db.UncheckedSQLException;
 import core.framework.api.util.Exceptions;
+import core.framework.api.util.Lists;
 import core.framework.impl.resource.Pool;
 import core.framework.impl.resource.PoolItem;
 import org.slf4j.Logger;
@@ -12,6 +14,8 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author neo
@@ -20,7 +24,10 @@ public final class TransactionManager {
     private final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
     private final ThreadLocal<PoolItem<Connection>> currentConnection = new ThreadLocal<>();
     private final ThreadLocal<TransactionState> currentTransactionState = new ThreadLocal<>();
+    private final ThreadLocal<Integer> readFromPrimaryScopes = new ThreadLocal<>();
     private final Pool<Connection> pool;
+    final List<ReplicaPool> replicas = Lists.newArrayList();
+    private final AtomicInteger nextReplica = new AtomicInteger();
     public IsolationLevel defaultIsolationLevel;
     public long longTransactionThresholdInNanos = Duration.ofSeconds(10).toNanos();
 
@@ -40,6 +47,35 @@ public final class TransactionManager {
         return getConnectionFromPool();
     }
 
+    // return replica to read from, or null if read from primary, within transaction or read from primary scope it always uses primary
+    ReplicaPool replica() {
+        int size = replicas.size();
+        if (size == 0 || currentConnection.get() != null || readFromPrimaryScopes.get() != null) return null;
+
+        // pick replica with least outstanding requests, start from round robin position to spread ties
+        int start = (nextReplica.getAndIncrement() & Integer.MAX_VALUE) % size;
+        ReplicaPool selected = replicas.get(start);
+        for (int i = 1; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (replica.outstandingRequests.get() < selected.outstandingRequests.get()) selected = replica;
+        }
+        return selected;
+    }
+
+    ReadFromPrimary readFromPrimary() {
+        Integer scopes = readFromPrimaryScopes.get();
+        readFromPrimaryScopes.set(scopes == null ? 1 : scopes + 1);
+        return () -> {
+            int currentScopes = readFromPrimaryScopes.get();
+            if (currentScopes == 1) readFromPrimaryScopes.remove();
+            else readFromPrimaryScopes.set(currentScopes - 1);
+        };
+    }
+
+    boolean inTransaction() {
+        return currentConnection.get() != null;
+    }
+
     public void releaseConnection(PoolItem<Connection> connection) {
         if (currentConnection.get() == null)
             returnConnection(connection);
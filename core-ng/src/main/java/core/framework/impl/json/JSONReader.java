@@ -33,4 +33,12 @@ public final class JSONReader<T> {
             throw new UncheckedIOException(e);
         }
     }
+
+    public T fromJSON(byte[] json, int offset, int length) {
+        try {
+            return reader.readValue(json, offset, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
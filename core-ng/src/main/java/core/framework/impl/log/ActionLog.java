@@ -1,13 +1,14 @@
 package core.framework.impl.log;
 
+import core.framework.api.log.MessageFilter;
 import core.framework.api.util.Exceptions;
 import core.framework.api.util.Maps;
 
+import org.slf4j.Marker;
+
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.time.Instant;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,10 +26,11 @@ public final class ActionLog {
     final Instant date;
     final Map<String, String> context;
     final Map<String, PerformanceStat> performanceStats;
-    final List<LogEvent> events;
+    final TraceBuffer events;
     private final long startCPUTime;
     private final long startElapsed;
     public boolean trace;  // whether flush trace log for all subsequent actions
+    boolean captureDebug = true;    // if not, debug events are skipped unless trace is on, and trace of warn/error action only contains info and above
     public String action = "unassigned";
     String refId;
     String errorMessage;
@@ -38,10 +40,14 @@ public final class ActionLog {
     private String errorCode;
 
     ActionLog(String message) {
+        this(message, new TraceBuffer());
+    }
+
+    ActionLog(String message, TraceBuffer events) {
         startElapsed = System.nanoTime();
         startCPUTime = THREAD.getCurrentThreadCpuTime();
         date = Instant.now();
-        events = new LinkedList<>();
+        this.events = events;
         performanceStats = Maps.newHashMap();
         context = Maps.newLinkedHashMap();
         id = UUID.randomUUID().toString();
@@ -56,26 +62,30 @@ public final class ActionLog {
         log(message);
     }
 
-    void process(LogEvent event) {
-        if (event.level.value > result.value) {
-            result = event.level;
+    // return captured event, or null if skipped
+    LogEvent process(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception, MessageFilter filter) {
+        if (level == LogLevel.DEBUG && !captureDebug && !trace) return null;
+        if (events.size() >= MAX_TRACE_HOLD_SIZE && level.value < LogLevel.WARN.value) return null;    // after reach max holding lines, only add warning/error events
+
+        LogEvent event = add(logger, marker, level, message, arguments, exception, filter);
+        if (level.value > result.value) {
+            result = level;
             errorCode = event.errorCode(); // only update error type/message if level raised, so error type will be first WARN or first ERROR
             errorMessage = errorMessage(event);
         }
-        if (events.size() < MAX_TRACE_HOLD_SIZE || event.level.value >= LogLevel.WARN.value) {  // after reach max holding lines, only add warning/error events
-            add(event);
-        }
+        return event;
     }
 
     private void log(String message, Object... argument) {  // add log event directly, so internal message and won't be suspended
-        add(new LogEvent(LOGGER, null, LogLevel.DEBUG, message, argument, null));
+        add(LOGGER, null, LogLevel.DEBUG, message, argument, null, null);
     }
 
-    private void add(LogEvent event) {
-        events.add(event);
+    private LogEvent add(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception, MessageFilter filter) {
+        LogEvent event = events.add(logger, marker, level, message, arguments, exception, filter);
         if (events.size() == MAX_TRACE_HOLD_SIZE) {
-            events.add(new LogEvent(LOGGER, null, LogLevel.DEBUG, "reached max trace log holding size, only collect critical log event from now on", null, null));
+            events.add(LOGGER, null, LogLevel.DEBUG, "reached max trace log holding size, only collect critical log event from now on", null, null, null);
         }
+        return event;
     }
 
     private String errorMessage(LogEvent event) {
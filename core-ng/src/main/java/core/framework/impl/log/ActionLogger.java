@@ -39,22 +39,50 @@ public final class ActionLogger {
 
     private final Writer writer;
     private final PrintStream fallbackLogger = System.err;
+    private AsyncLogWriter<ActionLog> asyncWriter;
 
     private ActionLogger(Writer writer) {
         this.writer = writer;
     }
 
+    // format and write on dedicated thread, flush once per batch
+    void async(int queueSize, boolean blockWhenFull) {
+        asyncWriter = new AsyncLogWriter<>("action-log-writer", queueSize, blockWhenFull, this::append, this::flush, fallbackLogger);
+        asyncWriter.start();
+    }
+
     void write(ActionLog log) {
+        if (asyncWriter != null) {
+            asyncWriter.add(log);
+        } else {
+            append(log);
+            flush();
+        }
+    }
+
+    long droppedCount() {
+        return asyncWriter == null ? 0 : asyncWriter.droppedCount();
+    }
+
+    private void append(ActionLog log) {
         String actionLogMessage = actionLogMessage(log);
         try {
             writer.write(actionLogMessage);
-            writer.flush();
         } catch (IOException e) {
             fallbackLogger.println("failed to write action log, log=" + actionLogMessage + ", error=" + Exceptions.stackTrace(e));
         }
     }
 
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            fallbackLogger.println("failed to flush action log, error=" + Exceptions.stackTrace(e));
+        }
+    }
+
     void close() {
+        if (asyncWriter != null) asyncWriter.stop();
         try {
             writer.close();
         } catch (IOException e) {
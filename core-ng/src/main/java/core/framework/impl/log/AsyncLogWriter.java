@@ -0,0 +1,128 @@
+package core.framework.impl.log;
+
+import core.framework.api.util.Exceptions;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * request threads put logs into bounded lock free ring buffer, single writer thread drains in batch and flush once per batch,
+ * so disk latency does not block request threads
+ * <p>
+ * when buffer is full, either drop the log and count it, or block until writer thread catches up
+ *
+ * @author neo
+ */
+final class AsyncLogWriter<T> {
+    private static final long MAX_WAIT_TIME_IN_NANOS = 100_000_000;     // writer thread wakes up at least every 100ms, in case missed signal
+    private static final long FULL_WAIT_TIME_IN_NANOS = 100_000;
+
+    private final AtomicReferenceArray<T> buffer;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();   // next position to put, claimed by request threads
+    private final AtomicLong dropped = new AtomicLong();
+    private final Consumer<T> handler;
+    private final Runnable flush;
+    private final PrintStream errorLogger;    // of owner logger, as writer can not log thru logger itself
+    private final boolean blockWhenFull;
+    private final Thread writerThread;
+    private volatile long head;     // next position to take, only updated by writer thread
+    private volatile boolean waiting;
+    private volatile boolean stop;
+
+    AsyncLogWriter(String name, int capacity, boolean blockWhenFull, Consumer<T> handler, Runnable flush, PrintStream errorLogger) {
+        int size = 1;
+        while (size < capacity) {
+            size = size << 1;   // round up to power of 2, to use bit mask as index
+        }
+        buffer = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        this.blockWhenFull = blockWhenFull;
+        this.handler = handler;
+        this.flush = flush;
+        this.errorLogger = errorLogger;
+        writerThread = new Thread(this::drain, name);
+        writerThread.setDaemon(true);
+    }
+
+    void start() {
+        writerThread.start();
+    }
+
+    // drain all remaining logs before return
+    void stop() {
+        stop = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+    }
+
+    void add(T log) {
+        while (!offer(log)) {
+            if (!blockWhenFull || stop) {
+                dropped.incrementAndGet();
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_WAIT_TIME_IN_NANOS);
+        }
+        if (waiting) LockSupport.unpark(writerThread);
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    private boolean offer(T log) {
+        while (true) {
+            long position = tail.get();
+            if (position - head > mask) return false;
+            if (tail.compareAndSet(position, position + 1)) {
+                buffer.lazySet((int) position & mask, log);
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int count = drainBatch();
+            if (count > 0) {
+                flush.run();
+            } else if (stop) {
+                if (tail.get() == head) return;    // there may be claimed but not yet published logs
+                Thread.yield();
+            } else {
+                waiting = true;
+                if (tail.get() == head) LockSupport.parkNanos(this, MAX_WAIT_TIME_IN_NANOS);   // check after set waiting, so either request thread sees waiting or writer sees new log
+                waiting = false;
+            }
+        }
+    }
+
+    private int drainBatch() {
+        int count = 0;
+        long position = head;
+        while (count <= mask) {
+            int index = (int) position & mask;
+            T log = buffer.get(index);
+            if (log == null) break;     // not published yet
+            buffer.lazySet(index, null);
+            position++;
+            head = position;
+            count++;
+            try {
+                handler.accept(log);
+            } catch (Throwable e) {
+                errorLogger.println("failed to write log, error=" + Exceptions.stackTrace(e));
+            }
+        }
+        return count;
+    }
+}
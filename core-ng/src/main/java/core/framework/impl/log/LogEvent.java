@@ -13,25 +13,46 @@ import java.time.format.DateTimeFormatter;
  * @author neo
  */
 final class LogEvent {
-    final LogLevel level;
-    private final String thread;
-    private final String logger;
-    private final Marker marker;
-    private final long time = System.currentTimeMillis();
-    private final String message;
-    private final Object[] arguments;
-    private final Throwable exception;
+    LogLevel level;
     MessageFilter filter;
+    private String thread;
+    private String logger;
+    private Marker marker;
+    private long time;
+    private String message;
+    private Object[] arguments;
+    private Throwable exception;
     private String logMessage;
 
     LogEvent(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception) {
+        set(logger, marker, level, message, arguments, exception);
+    }
+
+    // empty event held by TraceBuffer, to be reused for every action of thread
+    LogEvent() {
+    }
+
+    void set(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception) {
         this.level = level;
         this.marker = marker;
         this.logger = logger;
         this.message = message;
         this.arguments = arguments;
         this.exception = exception;
+        time = System.currentTimeMillis();
         thread = Thread.currentThread().getName();
+        filter = null;
+        logMessage = null;
+    }
+
+    // release references, so arguments/exception can be garbage collected while event is held for reusing
+    void clear() {
+        marker = null;
+        message = null;
+        arguments = null;
+        exception = null;
+        filter = null;
+        logMessage = null;
     }
 
     String logMessage() {
@@ -3,11 +3,13 @@ package core.framework.impl.log;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.ShutdownSignalException;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import core.framework.api.util.Network;
 import core.framework.api.util.Threads;
 import core.framework.impl.json.JSONWriter;
 import core.framework.impl.log.queue.ActionLogMessage;
+import core.framework.impl.log.queue.MessageBatch;
 import core.framework.impl.log.queue.PerformanceStatMessage;
 import core.framework.impl.log.queue.StatMessage;
 import core.framework.impl.queue.RabbitMQImpl;
@@ -17,25 +19,36 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * messages are published in batch, packed as one gzipped amqp message per queue, and resent until confirmed by broker,
+ * queued messages are bounded by estimated memory size, new messages are dropped and counted when exceeded, e.g. log queue is not available
+ *
  * @author neo
  */
 public final class LogForwarder {
     private static final int MAX_TRACE_LENGTH = 1000000; // 1M
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final long MAX_BATCH_MEMORY_SIZE = 8 * 1024 * 1024;
+    private static final long MAX_QUEUED_MEMORY_SIZE = 64 * 1024 * 1024;
+    private static final long CONFIRM_TIMEOUT_IN_MS = 30000;
 
     private final Logger logger = LoggerFactory.getLogger(LogForwarder.class);
     private final String appName;
 
-    private final AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().build();
-
     private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong queuedMemorySize = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Object> batch = Lists.newArrayList();    // only accessed by forwarder thread, kept until confirmed
     private final RabbitMQImpl rabbitMQ = new RabbitMQImpl();
 
     private final AtomicBoolean stop = new AtomicBoolean(false);
@@ -56,9 +69,6 @@ public final class LogForwarder {
                 } catch (Throwable e) {
                     if (!stop.get()) {  // if not initiated by shutdown, exception types can be ShutdownSignalException, InterruptedException
                         retryAttempts++;
-                        if (retryAttempts >= 10) {  // roughly 5 mins to hold messages if log queue is not available
-                            queue.clear();    // clear messages to clean up memory
-                        }
                         logger.warn("failed to send log message, retry in 30 seconds, attempts={}", retryAttempts, e);
                         Threads.sleepRoughly(Duration.ofSeconds(30));
                     }
@@ -80,25 +90,79 @@ public final class LogForwarder {
         rabbitMQ.close();
     }
 
-    private void forwardLogs() throws InterruptedException, IOException {
+    private void forwardLogs() throws InterruptedException, IOException, TimeoutException {
         Channel channel = rabbitMQ.createChannel();
         try {
+            channel.confirmSelect();
             while (!stop.get()) {
-                Object message = queue.take();
+                if (batch.isEmpty()) takeBatch();   // batch failed to publish last time will be resent
 
-                if (message instanceof ActionLogMessage) {
-                    channel.basicPublish("", "action-log-queue", properties, actionLogWriter.toJSON((ActionLogMessage) message));
-                } else if (message instanceof StatMessage) {
-                    channel.basicPublish("", "stat-queue", properties, statWriter.toJSON((StatMessage) message));
-                }
+                publish(channel, batch);
+                channel.waitForConfirmsOrDie(CONFIRM_TIMEOUT_IN_MS);
 
-                retryAttempts = 0;  // reset retry attempts if one message sent successfully
+                long memorySize = 0;
+                for (Object message : batch) {
+                    memorySize += memorySize(message);
+                }
+                queuedMemorySize.addAndGet(-memorySize);
+                batch.clear();
+                retryAttempts = 0;  // reset retry attempts if one batch sent successfully
             }
         } finally {
             closeChannel(channel);
         }
     }
 
+    private void takeBatch() throws InterruptedException {
+        Object message = queue.take();
+        long memorySize = 0;
+        while (true) {
+            batch.add(message);
+            memorySize += memorySize(message);
+            if (batch.size() >= MAX_BATCH_SIZE || memorySize >= MAX_BATCH_MEMORY_SIZE) return;
+            message = queue.poll();
+            if (message == null) return;
+        }
+    }
+
+    private void publish(Channel channel, List<Object> messages) throws IOException {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().contentEncoding(MessageBatch.CONTENT_ENCODING).timestamp(new Date()).build();    // timestamp is for consumer to measure lag
+        List<byte[]> actionLogs = Lists.newArrayList();
+        List<byte[]> stats = Lists.newArrayList();
+        for (Object message : messages) {
+            if (message instanceof ActionLogMessage) {
+                actionLogs.add(actionLogWriter.toJSON((ActionLogMessage) message));
+            } else if (message instanceof StatMessage) {
+                stats.add(statWriter.toJSON((StatMessage) message));
+            }
+        }
+        if (!actionLogs.isEmpty()) channel.basicPublish("", "action-log-queue", properties, MessageBatch.encode(actionLogs));
+        if (!stats.isEmpty()) channel.basicPublish("", "stat-queue", properties, MessageBatch.encode(stats));
+    }
+
+    private void add(Object message) {
+        long memorySize = memorySize(message);
+        if (queuedMemorySize.addAndGet(memorySize) > MAX_QUEUED_MEMORY_SIZE) {
+            queuedMemorySize.addAndGet(-memorySize);
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.add(message);
+    }
+
+    // rough estimation, trace log takes most of memory
+    private long memorySize(Object message) {
+        if (message instanceof ActionLogMessage) {
+            String traceLog = ((ActionLogMessage) message).traceLog;
+            return traceLog == null ? 1024 : 1024 + traceLog.length() * 2;
+        }
+        return 1024;
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
     private void closeChannel(Channel channel) {
         try {
             channel.close();
@@ -144,7 +208,7 @@ public final class LogForwarder {
             }
             message.traceLog = builder.toString();
         }
-        queue.add(message);
+        add(message);
     }
 
     public void forwardStats(Map<String, Double> stats) {
@@ -154,6 +218,6 @@ public final class LogForwarder {
         message.app = appName;
         message.serverIP = Network.localHostAddress();
         message.stats = stats;
-        queue.add(message);
+        add(message);
     }
 }
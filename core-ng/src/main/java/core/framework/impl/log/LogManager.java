@@ -4,54 +4,102 @@ import core.framework.api.log.ErrorCode;
 import core.framework.api.log.Markers;
 import core.framework.api.log.MessageFilter;
 import core.framework.api.log.Severity;
+import core.framework.impl.log.stat.LatencyStats;
+import core.framework.impl.log.stat.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * @author neo
  */
 public final class LogManager {
     public final String appName;
+    public final LatencyStats actionLatencies = new LatencyStats("action_");
+    public final LatencyStats operationLatencies = new LatencyStats("");    // tracked operations, e.g. db, redis
+    public final List<Metrics> metrics = new CopyOnWriteArrayList<>();
 
     private final ThreadLocal<ActionLog> actionLog = new ThreadLocal<>();
+    private final ThreadLocal<TraceBuffer> traceBuffer = new ThreadLocal<>();
     private final Logger logger = new LoggerImpl(LoggerImpl.abbreviateLoggerName(LogManager.class.getCanonicalName()), this, LogLevel.DEBUG);
     public ActionLogger actionLogger;
     public TraceLogger traceLogger;
     public LogForwarder logForwarder;
     public MessageFilter filter;
+    public double debugTraceSampleRate = 1;     // ratio of actions to capture debug events into trace
+    private int asyncWriterQueueSize;
+    private boolean blockWhenAsyncWriterFull;
 
     public LogManager() {
         this.appName = System.getProperty("core.appName");
     }
 
     public void begin(String message) {
-        this.actionLog.set(new ActionLog(message));
+        TraceBuffer buffer = traceBuffer.get();
+        if (buffer == null) {
+            buffer = new TraceBuffer();
+            traceBuffer.set(buffer);
+        }
+        ActionLog actionLog = new ActionLog(message, buffer);
+        if (debugTraceSampleRate < 1) actionLog.captureDebug = ThreadLocalRandom.current().nextDouble() < debugTraceSampleRate;
+        this.actionLog.set(actionLog);
     }
 
     public void end(String message) {
         ActionLog actionLog = currentActionLog();
         this.actionLog.remove();
         actionLog.end(message);
+        actionLatencies.record(actionLog.action, actionLog.elapsed);
 
         if (traceLogger != null) traceLogger.write(actionLog);  // trace log generate logPath context to action log, so make it process first
         if (actionLogger != null) actionLogger.write(actionLog);
         if (logForwarder != null) logForwarder.forwardLog(actionLog);
+
+        if (actionLog.flushTraceLog()) {
+            traceBuffer.remove();   // events may be still referred by async trace writer, so not reuse
+        } else {
+            actionLog.events.clear();
+        }
     }
 
-    public void process(LogEvent event) {
+    LogEvent process(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception) {
         ActionLog actionLog = currentActionLog();
-        if (actionLog != null) actionLog.process(event);    // process is called by loggerImpl.log, begin() may not be called before
+        if (actionLog == null) return null;     // process is called by loggerImpl.log, begin() may not be called before
+        return actionLog.process(logger, marker, level, message, arguments, exception, filter);
+    }
+
+    // write action/trace log on dedicated threads, takes effect on start()
+    public void asyncWriter(int queueSize, boolean blockWhenFull) {
+        asyncWriterQueueSize = queueSize;
+        blockWhenAsyncWriterFull = blockWhenFull;
     }
 
     public void start() {
+        if (asyncWriterQueueSize > 0) {
+            if (actionLogger != null) actionLogger.async(asyncWriterQueueSize, blockWhenAsyncWriterFull);
+            if (traceLogger != null) traceLogger.async(asyncWriterQueueSize, blockWhenAsyncWriterFull);
+        }
         if (logForwarder != null) logForwarder.start();
     }
 
     public void stop() {
         if (logForwarder != null) logForwarder.stop();
+        if (traceLogger != null) traceLogger.close();
         if (actionLogger != null) actionLogger.close();
     }
 
+    // total number of logs dropped as async writer or forwarder queue was full
+    public long droppedLogCount() {
+        long count = 0;
+        if (actionLogger != null) count += actionLogger.droppedCount();
+        if (traceLogger != null) count += traceLogger.droppedCount();
+        if (logForwarder != null) count += logForwarder.droppedCount();
+        return count;
+    }
+
     public ActionLog currentActionLog() {
         return actionLog.get();
     }
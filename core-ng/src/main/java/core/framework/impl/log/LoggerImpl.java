@@ -41,11 +41,13 @@ final class LoggerImpl extends AbstractLogger {
     @Override
     void log(Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception) {
         if (level.value >= traceLevel.value) {
-            LogEvent event = new LogEvent(logger, marker, level, message, arguments, exception);
-            event.filter = logManager.filter;
-            logManager.process(event);
+            LogEvent event = logManager.process(logger, marker, level, message, arguments, exception);
 
             if (level.value >= LogLevel.INFO.value) {
+                if (event == null) {
+                    event = new LogEvent(logger, marker, level, message, arguments, exception);
+                    event.filter = logManager.filter;
+                }
                 output.print(event.logMessage());
             }
         }
@@ -0,0 +1,74 @@
+package core.framework.impl.log;
+
+import core.framework.api.log.MessageFilter;
+import core.framework.api.util.Lists;
+import org.slf4j.Marker;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * holds log events of one action in chunks of preallocated events, buffer is reused by next action of same thread if trace was not flushed,
+ * so there is no allocation per log event in steady state, message is only formatted when trace is flushed
+ *
+ * @author neo
+ */
+final class TraceBuffer implements Iterable<LogEvent> {
+    private static final int CHUNK_SHIFT = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int MAX_RETAINED_CHUNKS = 4;    // retain up to 1024 events per thread for reuse, for long trace, rest chunks will be garbage collected
+
+    private final List<LogEvent[]> chunks = Lists.newArrayList();
+    private int size;
+
+    LogEvent add(String logger, Marker marker, LogLevel level, String message, Object[] arguments, Throwable exception, MessageFilter filter) {
+        int chunkIndex = size >>> CHUNK_SHIFT;
+        if (chunkIndex == chunks.size()) chunks.add(new LogEvent[CHUNK_SIZE]);
+        LogEvent[] chunk = chunks.get(chunkIndex);
+        int index = size & (CHUNK_SIZE - 1);
+        LogEvent event = chunk[index];
+        if (event == null) {
+            event = new LogEvent();
+            chunk[index] = event;
+        }
+        event.set(logger, marker, level, message, arguments, exception);
+        event.filter = filter;
+        size++;
+        return event;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            chunks.get(i >>> CHUNK_SHIFT)[i & (CHUNK_SIZE - 1)].clear();
+        }
+        size = 0;
+        while (chunks.size() > MAX_RETAINED_CHUNKS) {
+            chunks.remove(chunks.size() - 1);
+        }
+    }
+
+    @Override
+    public Iterator<LogEvent> iterator() {
+        return new Iterator<LogEvent>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public LogEvent next() {
+                if (index >= size) throw new NoSuchElementException();
+                LogEvent event = chunks.get(index >>> CHUNK_SHIFT)[index & (CHUNK_SIZE - 1)];
+                index++;
+                return event;
+            }
+        };
+    }
+}
@@ -38,15 +38,44 @@ public final class TraceLogger {
     private final PrintStream errorLogger = System.err;
     private final Path traceLogPath;
     private boolean console;
+    private AsyncLogWriter<ActionLog> asyncWriter;
 
     TraceLogger(Path traceLogPath) {
         this.traceLogPath = traceLogPath;
     }
 
+    // write trace on dedicated thread, logPath is still assigned on request thread, as action log refers to it
+    void async(int queueSize, boolean blockWhenFull) {
+        asyncWriter = new AsyncLogWriter<>("trace-log-writer", queueSize, blockWhenFull, this::writeTrace, () -> {
+        }, errorLogger);
+        asyncWriter.start();
+    }
+
     void write(ActionLog log) {
         if (!log.flushTraceLog()) return;
 
-        Writer writer = createWriter(log);
+        if (traceLogPath != null) {
+            String logPath = traceLogFilePath(traceLogPath.toString(), LocalDateTime.ofInstant(log.date, ZoneId.systemDefault()), log.action, log.id);
+            log.context.put("logPath", logPath);    // not log as event but add value to context, no need to see logPath in trace
+        }
+
+        if (asyncWriter != null) {
+            asyncWriter.add(log);
+        } else {
+            writeTrace(log);
+        }
+    }
+
+    long droppedCount() {
+        return asyncWriter == null ? 0 : asyncWriter.droppedCount();
+    }
+
+    void close() {
+        if (asyncWriter != null) asyncWriter.stop();
+    }
+
+    private void writeTrace(ActionLog log) {
+        Writer writer = createWriter(log.context.get("logPath"));
         try {
             for (LogEvent event : log.events) {
                 String message = event.logMessage();
@@ -71,11 +100,9 @@ public final class TraceLogger {
         }
     }
 
-    Writer createWriter(ActionLog log) {
-        if (traceLogPath != null) {
+    Writer createWriter(String logPath) {
+        if (logPath != null) {
             try {
-                String logPath = traceLogFilePath(traceLogPath.toString(), LocalDateTime.ofInstant(log.date, ZoneId.systemDefault()), log.action, log.id);
-                log.context.put("logPath", logPath);    // not log as event but add value to context, no need to see logPath in trace
                 Path path = Paths.get(logPath).toAbsolutePath();
                 createDir(path.getParent());
                 createFile(path);
@@ -0,0 +1,52 @@
+package core.framework.impl.log.queue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * envelope of multiple log messages in one amqp message, body is gzipped json array of messages, marked by content encoding
+ *
+ * @author neo
+ */
+public final class MessageBatch {
+    public static final String CONTENT_ENCODING = "gzip";
+
+    public static byte[] encode(List<byte[]> messages) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+        try (OutputStream stream = new GZIPOutputStream(output, 8192)) {
+            stream.write('[');
+            int index = 0;
+            for (byte[] message : messages) {
+                if (index > 0) stream.write(',');
+                stream.write(message);
+                index++;
+            }
+            stream.write(']');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    // return json array of messages
+    public static byte[] decode(byte[] body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length * 8);
+        try (InputStream stream = new GZIPInputStream(new ByteArrayInputStream(body), 8192)) {
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -1,13 +1,16 @@
 package core.framework.impl.log.stat;
 
 import core.framework.api.util.Maps;
-import core.framework.impl.log.LogForwarder;
+import core.framework.impl.log.LogManager;
+import core.framework.impl.resource.Pool;
+import core.framework.impl.resource.PoolMetrics;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.ThreadMXBean;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,10 +20,14 @@ public class CollectStatTask implements Runnable {
     private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
     private final ThreadMXBean thread = ManagementFactory.getThreadMXBean();
     private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
-    private final LogForwarder logForwarder;
+    private final LogManager logManager;
+    private final List<Pool<?>> pools;
+    private final Map<Pool<?>, PoolSnapshot> previousPoolSnapshots = Maps.newHashMap();
+    private long previousDroppedLogCount;
 
-    public CollectStatTask(LogForwarder logForwarder) {
-        this.logForwarder = logForwarder;
+    public CollectStatTask(LogManager logManager, List<Pool<?>> pools) {
+        this.logManager = logManager;
+        this.pools = pools;
     }
 
     @Override
@@ -31,6 +38,80 @@ public class CollectStatTask implements Runnable {
         MemoryUsage usage = memory.getHeapMemoryUsage();
         stats.put("jvm_heap_used", (double) usage.getUsed());
         stats.put("jvm_heap_max", (double) usage.getMax());
-        logForwarder.forwardStats(stats);
+        long droppedLogCount = logManager.droppedLogCount();
+        stats.put("log_dropped", (double) (droppedLogCount - previousDroppedLogCount));
+        previousDroppedLogCount = droppedLogCount;
+        for (Pool<?> pool : pools) {
+            collectPoolStats(pool, stats);
+        }
+        logManager.actionLatencies.collect(stats);
+        logManager.operationLatencies.collect(stats);
+        for (Metrics metrics : logManager.metrics) {
+            metrics.collect(stats);
+        }
+        logManager.logForwarder.forwardStats(stats);
+    }
+
+    // counters are reported as delta since last collection, to make rate and percentile meaningful per interval
+    void collectPoolStats(Pool<?> pool, Map<String, Double> stats) {
+        String prefix = "pool_" + pool.name() + "_";
+        int total = pool.totalCount();
+        stats.put(prefix + "total", (double) total);
+        stats.put(prefix + "active", (double) Math.max(total - pool.idleCount(), 0));
+
+        PoolSnapshot current = new PoolSnapshot(pool.metrics);
+        PoolSnapshot previous = previousPoolSnapshots.put(pool, current);
+        if (previous == null) previous = new PoolSnapshot();
+        stats.put(prefix + "checkout", (double) (current.checkouts - previous.checkouts));
+        stats.put(prefix + "create", (double) (current.creates - previous.creates));
+        stats.put(prefix + "recycle", (double) (current.recycles - previous.recycles));
+        stats.put(prefix + "timeout", (double) (current.timeouts - previous.timeouts));
+        long[] waitTimes = new long[current.waitTimeHistogram.length];
+        for (int i = 0; i < waitTimes.length; i++) {
+            waitTimes[i] = current.waitTimeHistogram[i] - previous.waitTimeHistogram[i];
+        }
+        stats.put(prefix + "wait_p99", (double) percentile(waitTimes, 0.99));
+    }
+
+    // return upper bound of bucket in ms which contains the percentile, the last bucket is open, so return its lower bound
+    long percentile(long[] histogram, double percentile) {
+        long count = 0;
+        for (long bucket : histogram) {
+            count += bucket;
+        }
+        if (count == 0) return 0;
+
+        long[] buckets = PoolMetrics.WAIT_TIME_BUCKETS_IN_MS;
+        long threshold = (long) Math.ceil(count * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            accumulated += histogram[i];
+            if (accumulated >= threshold) return buckets[i];
+        }
+        return buckets[buckets.length - 1];
+    }
+
+    private static final class PoolSnapshot {
+        final long checkouts;
+        final long creates;
+        final long recycles;
+        final long timeouts;
+        final long[] waitTimeHistogram;
+
+        PoolSnapshot() {
+            checkouts = 0;
+            creates = 0;
+            recycles = 0;
+            timeouts = 0;
+            waitTimeHistogram = new long[PoolMetrics.WAIT_TIME_BUCKETS_IN_MS.length + 1];
+        }
+
+        PoolSnapshot(PoolMetrics metrics) {
+            checkouts = metrics.checkouts();
+            creates = metrics.creates();
+            recycles = metrics.recycles();
+            timeouts = metrics.timeouts();
+            waitTimeHistogram = metrics.waitTimeHistogram();
+        }
     }
 }
@@ -0,0 +1,56 @@
+package core.framework.impl.log.stat;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * log linear buckets like HDR histogram, each power of 2 range is split into 16 sub buckets, so relative error is within 1/16,
+ * recording is lock free, counts are taken and reset by each collection
+ *
+ * @author neo
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) Math.max(value, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // return max value of bucket
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    // return upper bound of bucket which contains the percentile
+    static long percentile(long[] counts, long total, double percentile) {
+        long threshold = (long) Math.ceil(total * percentile);
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= threshold) return upperBound(i);
+        }
+        return upperBound(counts.length - 1);
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(index(value));
+    }
+
+    // return counts since last call, value recorded during taking may fall into either interval
+    long[] takeCounts() {
+        long[] result = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts.get(i) != 0) result[i] = counts.getAndSet(i, 0);
+        }
+        return result;
+    }
+}
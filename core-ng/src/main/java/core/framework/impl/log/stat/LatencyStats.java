@@ -0,0 +1,41 @@
+package core.framework.impl.log.stat;
+
+import core.framework.api.util.Maps;
+
+import java.util.Map;
+
+/**
+ * latency histograms by name, e.g. action or tracked operation (db, redis, rabbitMQ), collected as percentiles in nanoseconds per stat interval
+ *
+ * @author neo
+ */
+public final class LatencyStats {
+    private final Map<String, LatencyHistogram> histograms = Maps.newConcurrentHashMap();
+    private final String prefix;
+
+    public LatencyStats(String prefix) {
+        this.prefix = prefix;
+    }
+
+    public void record(String name, long elapsedTime) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) histogram = histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+        histogram.record(elapsedTime);
+    }
+
+    void collect(Map<String, Double> stats) {
+        histograms.forEach((name, histogram) -> {
+            long[] counts = histogram.takeCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) return;
+            String key = prefix + name.replace('.', '_');   // elasticsearch doesn't allow dot in field name, e.g. action web/get-favicon.ico
+            stats.put(key + "_count", (double) total);
+            stats.put(key + "_p50", (double) LatencyHistogram.percentile(counts, total, 0.5));
+            stats.put(key + "_p99", (double) LatencyHistogram.percentile(counts, total, 0.99));
+            stats.put(key + "_p999", (double) LatencyHistogram.percentile(counts, total, 0.999));
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package core.framework.impl.log.stat;
+
+import java.util.Map;
+
+/**
+ * to be collected by CollectStatTask and forwarded as stats
+ *
+ * @author neo
+ */
+public interface Metrics {
+    void collect(Map<String, Double> stats);
+}
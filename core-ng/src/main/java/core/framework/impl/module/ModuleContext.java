@@ -12,11 +12,13 @@ import core.framework.impl.inject.BeanFactory;
 import core.framework.impl.inject.ShutdownHook;
 import core.framework.impl.log.DefaultLoggerFactory;
 import core.framework.impl.log.LogManager;
+import core.framework.impl.resource.Pool;
 import core.framework.impl.scheduler.Scheduler;
 import core.framework.impl.web.ControllerHolder;
 import core.framework.impl.web.HTTPServer;
 import core.framework.impl.web.management.HealthCheckController;
 import core.framework.impl.web.management.MemoryUsageController;
+import core.framework.impl.web.management.PoolController;
 import core.framework.impl.web.management.SchedulerController;
 import core.framework.impl.web.management.ThreadInfoController;
 import org.slf4j.LoggerFactory;
@@ -35,6 +37,7 @@ public final class ModuleContext {
     public final HTTPServer httpServer;
     public final ExecutorImpl executor;
     public final QueueManager queueManager = new QueueManager();
+    public final List<Pool<?>> pools = Lists.newArrayList();
     public final LogManager logManager;
     public final MockFactory mockFactory;
     public CacheManager cacheManager;
@@ -69,6 +72,7 @@ public final class ModuleContext {
             ThreadInfoController threadInfoController = new ThreadInfoController();
             httpServer.handler.route.add(HTTPMethod.GET, "/_sys/thread", new ControllerHolder(threadInfoController::threadUsage, true));
             httpServer.handler.route.add(HTTPMethod.GET, "/_sys/thread-dump", new ControllerHolder(threadInfoController::threadDump, true));
+            httpServer.handler.route.add(HTTPMethod.GET, "/_sys/pool", new ControllerHolder(new PoolController(pools)::list, true));
         }
     }
 
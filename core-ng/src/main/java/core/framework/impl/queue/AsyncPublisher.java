@@ -0,0 +1,153 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import core.framework.api.util.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * request threads put messages into bounded queue, single publisher thread publishes through its own confirm channel,
+ * batch takes all queued messages up to max size or max interval, then waits for confirms once, so broker round trip is shared by batch,
+ * and messages arrived during confirm go to next batch
+ * <p>
+ * futures of batch complete exceptionally if channel failed or broker nacked, it's up to caller to retry
+ *
+ * @author neo
+ */
+final class AsyncPublisher {
+    private static final long POLL_TIMEOUT_IN_NANOS = 100_000_000;  // check stop signal every 100ms if idle
+
+    private final Logger logger = LoggerFactory.getLogger(AsyncPublisher.class);
+    private final BlockingQueue<PendingMessage> queue;
+    private final Supplier<Channel> channelSupplier;
+    private final Thread publisherThread;
+    private final List<PendingMessage> batch = Lists.newArrayList();
+    int batchSize = 100;
+    long batchIntervalInNanos = 10_000_000;
+    long confirmTimeoutInMs = 30_000;
+    private volatile boolean stop;
+    private Channel channel;
+
+    AsyncPublisher(String name, int capacity, Supplier<Channel> channelSupplier) {
+        queue = new LinkedBlockingQueue<>(capacity);
+        this.channelSupplier = channelSupplier;
+        publisherThread = new Thread(this::process, name);
+    }
+
+    void start() {
+        publisherThread.start();
+    }
+
+    // publish all queued messages before return, fail messages queued after publisher thread exited
+    void stop() {
+        stop = true;
+        try {
+            publisherThread.join();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+        PendingMessage message;
+        while ((message = queue.poll()) != null) {
+            message.future.completeExceptionally(new Error("publisher is stopped"));
+        }
+    }
+
+    // block caller if queue is full, until publisher thread catches up
+    CompletableFuture<Void> publish(String exchange, String routingKey, byte[] body, AMQP.BasicProperties properties) {
+        PendingMessage message = new PendingMessage(exchange, routingKey, body, properties);
+        if (stop) {
+            message.future.completeExceptionally(new Error("publisher is stopped"));
+            return message.future;
+        }
+        try {
+            queue.put(message);
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+        // stop may happen after above check, if message is still in queue, publisher thread may already exit, so fail it here
+        if (stop && queue.remove(message)) message.future.completeExceptionally(new Error("publisher is stopped"));
+        return message.future;
+    }
+
+    private void process() {
+        logger.info("async publisher thread started");
+        while (!stop || !queue.isEmpty()) {
+            try {
+                PendingMessage message = queue.poll(POLL_TIMEOUT_IN_NANOS, TimeUnit.NANOSECONDS);
+                if (message == null) continue;
+                long deadline = System.nanoTime() + batchIntervalInNanos;
+                publish(message);
+                while (batch.size() < batchSize && System.nanoTime() < deadline && (message = queue.poll()) != null) {
+                    publish(message);
+                }
+                confirm();
+            } catch (Throwable e) {
+                logger.warn("failed to publish message", e);
+                fail(e);
+            }
+        }
+        closeChannel();
+        logger.info("async publisher thread stopped");
+    }
+
+    private void publish(PendingMessage message) throws IOException {
+        batch.add(message);     // add to batch first, so it fails together if channel can not be created
+        if (channel == null) {
+            channel = channelSupplier.get();
+            channel.confirmSelect();
+        }
+        channel.basicPublish(message.exchange, message.routingKey, message.properties, message.body);
+    }
+
+    private void confirm() throws Exception {
+        logger.debug("wait for confirms, size={}", batch.size());
+        channel.waitForConfirmsOrDie(confirmTimeoutInMs);   // close channel if nacked or timeout
+        for (PendingMessage message : batch) {
+            message.future.complete(null);
+        }
+        batch.clear();
+    }
+
+    // unconfirmed messages of broken channel are unknown to be delivered or not, fail them all
+    private void fail(Throwable e) {
+        for (PendingMessage message : batch) {
+            message.future.completeExceptionally(e);
+        }
+        batch.clear();
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            if (channel.isOpen()) channel.close();
+        } catch (Throwable e) {
+            logger.warn("failed to close channel", e);
+        }
+        channel = null;
+    }
+
+    private static final class PendingMessage {
+        final String exchange;
+        final String routingKey;
+        final byte[] body;
+        final AMQP.BasicProperties properties;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingMessage(String exchange, String routingKey, byte[] body, AMQP.BasicProperties properties) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.body = body;
+            this.properties = properties;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package core.framework.impl.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD on handler latency, increase concurrency by one if handlers were saturated and latency is stable,
+ * decrease by 1/4 if average latency of window exceeds twice of min latency, which indicates handlers contend on downstream resources
+ *
+ * @author neo
+ */
+final class ConcurrencyController {
+    private static final long MIN_LATENCY_RESET_INTERVAL_IN_NANOS = 60_000_000_000L;    // reset baseline periodically, as message cost may change over time
+
+    final int minConcurrency;
+    final int maxConcurrency;
+    private final AtomicLong windowElapsed = new AtomicLong();
+    private final AtomicLong windowCount = new AtomicLong();
+    private volatile int concurrency;
+    private long minLatency = Long.MAX_VALUE;
+    private long minLatencyResetTime;
+
+    ConcurrencyController(int minConcurrency, int maxConcurrency, int initialConcurrency) {
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        concurrency = Math.max(minConcurrency, Math.min(maxConcurrency, initialConcurrency));
+    }
+
+    int concurrency() {
+        return concurrency;
+    }
+
+    void record(long elapsedTime) {
+        windowElapsed.addAndGet(elapsedTime);
+        windowCount.incrementAndGet();
+    }
+
+    // called by single thread periodically
+    int adjust(boolean saturated, long now) {
+        long count = windowCount.getAndSet(0);
+        long elapsed = windowElapsed.getAndSet(0);
+        if (count == 0) return concurrency;
+
+        long latency = elapsed / count;
+        if (now - minLatencyResetTime > MIN_LATENCY_RESET_INTERVAL_IN_NANOS) {
+            minLatency = latency;
+            minLatencyResetTime = now;
+        } else if (latency < minLatency) {
+            minLatency = latency;
+        }
+
+        if (latency > minLatency * 2) {
+            concurrency = Math.max(minConcurrency, concurrency * 3 / 4);
+        } else if (saturated) {
+            concurrency = Math.min(maxConcurrency, concurrency + 1);
+        }
+        return concurrency;
+    }
+}
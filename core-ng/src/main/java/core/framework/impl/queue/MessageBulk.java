@@ -0,0 +1,56 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.QueueingConsumer;
+import core.framework.api.queue.BulkMessageHandler;
+import core.framework.api.util.Lists;
+
+import java.util.List;
+
+/**
+ * collects deliveries of one message type for bulk handler, only accessed by listener thread
+ *
+ * @author neo
+ */
+final class MessageBulk {
+    final String messageType;
+    final BulkMessageHandler handler;
+    final int maxSize;
+    private final long maxWaitTimeInNanos;
+    private List<QueueingConsumer.Delivery> deliveries = Lists.newArrayList();
+    private long deadline;
+
+    MessageBulk(String messageType, BulkMessageHandler handler, int maxSize, long maxWaitTimeInNanos) {
+        this.messageType = messageType;
+        this.handler = handler;
+        this.maxSize = maxSize;
+        this.maxWaitTimeInNanos = maxWaitTimeInNanos;
+    }
+
+    // return true if bulk is full
+    boolean add(QueueingConsumer.Delivery delivery, long now) {
+        if (deliveries.isEmpty()) deadline = now + maxWaitTimeInNanos;
+        deliveries.add(delivery);
+        return deliveries.size() >= maxSize;
+    }
+
+    boolean isEmpty() {
+        return deliveries.isEmpty();
+    }
+
+    // return remaining wait time in nanos, or -1 if nothing to wait
+    long waitTime(long now) {
+        if (deliveries.isEmpty()) return -1;
+        return Math.max(0, deadline - now);
+    }
+
+    List<QueueingConsumer.Delivery> take() {
+        List<QueueingConsumer.Delivery> deliveries = this.deliveries;
+        this.deliveries = Lists.newArrayList();
+        return deliveries;
+    }
+
+    // deliveries of closed channel will be redelivered by broker
+    void clear() {
+        deliveries.clear();
+    }
+}
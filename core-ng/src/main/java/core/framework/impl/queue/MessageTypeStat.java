@@ -0,0 +1,31 @@
+package core.framework.impl.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author neo
+ */
+public final class MessageTypeStat {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalElapsed = new AtomicLong();
+    private final AtomicLong maxElapsed = new AtomicLong();
+
+    void record(long elapsedTime) {
+        count.incrementAndGet();
+        totalElapsed.addAndGet(elapsedTime);
+        maxElapsed.accumulateAndGet(elapsedTime, Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long averageElapsed() {
+        long count = this.count.get();
+        return count == 0 ? 0 : totalElapsed.get() / count;
+    }
+
+    public long maxElapsed() {
+        return maxElapsed.get();
+    }
+}
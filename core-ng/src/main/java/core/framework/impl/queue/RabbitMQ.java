@@ -2,12 +2,21 @@ package core.framework.impl.queue;
 
 import com.rabbitmq.client.AMQP;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * @author neo
  */
 public interface RabbitMQ {
     void publish(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties);
 
+    // publish messages with same properties through one channel
+    void publish(String exchange, String routingKey, List<byte[]> messages, AMQP.BasicProperties properties);
+
+    // future completes when broker confirmed the message
+    CompletableFuture<Void> publishAsync(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties);
+
     // consumer must be used in current thread, since the impl uses LockSupport.park()
     RabbitMQConsumer consumer(String queue, int prefetchCount);
 }
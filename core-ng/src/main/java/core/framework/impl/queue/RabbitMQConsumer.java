@@ -18,8 +18,11 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Deque;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableSet;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.LockSupport;
 
@@ -30,6 +33,7 @@ public class RabbitMQConsumer implements Consumer, AutoCloseable {
     private final Logger logger = LoggerFactory.getLogger(RabbitMQConsumer.class);
     private final QueueingConsumer.Delivery stopSignal = new QueueingConsumer.Delivery(null, null, null);
     private final Queue<QueueingConsumer.Delivery> deliveries = new ConcurrentLinkedQueue<>();
+    private final NavigableSet<Long> unacknowledgedDeliveryTags = new ConcurrentSkipListSet<>();
     private final Channel channel;
     private final String queue;
     private final long slowOperationThresholdInNanos;
@@ -83,6 +87,7 @@ public class RabbitMQConsumer implements Consumer, AutoCloseable {
     @Override
     public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body) {
         if (shutdown != null) throw Utility.fixStackTrace(shutdown);
+        unacknowledgedDeliveryTags.add(envelope.getDeliveryTag());
         deliveries.add(new QueueingConsumer.Delivery(envelope, properties, body));
         LockSupport.unpark(consumerThread);
     }
@@ -98,6 +103,17 @@ public class RabbitMQConsumer implements Consumer, AutoCloseable {
         }
     }
 
+    // return null if no delivery arrived within timeout
+    public QueueingConsumer.Delivery nextDelivery(long timeoutInNanos) throws ShutdownSignalException, ConsumerCancelledException, InterruptedException {
+        QueueingConsumer.Delivery delivery = poll();
+        if (delivery == null && timeoutInNanos > 0) {
+            LockSupport.parkNanos(timeoutInNanos);
+            if (Thread.interrupted()) throw new InterruptedException();
+            delivery = poll();
+        }
+        return delivery;
+    }
+
     public Deque<QueueingConsumer.Delivery> nextDeliveries(int maxSize) throws ShutdownSignalException, ConsumerCancelledException, InterruptedException {
         while (true) {
             QueueingConsumer.Delivery delivery = poll();
@@ -116,6 +132,25 @@ public class RabbitMQConsumer implements Consumer, AutoCloseable {
         }
     }
 
+    // return deliveries up to maxSize messages or maxBytes of body, or empty if consumer thread is unparked without new delivery,
+    // e.g. by worker thread finished processing, to let consumer thread acknowledge in time
+    public Deque<QueueingConsumer.Delivery> nextDeliveries(int maxSize, long maxBytes) throws ShutdownSignalException, ConsumerCancelledException, InterruptedException {
+        Deque<QueueingConsumer.Delivery> deliveries = new LinkedList<>();
+        QueueingConsumer.Delivery delivery = poll();
+        if (delivery == null) {
+            park();
+            delivery = poll();
+        }
+        long bytes = 0;
+        while (delivery != null) {
+            deliveries.add(delivery);
+            bytes += delivery.getBody().length;
+            if (deliveries.size() >= maxSize || bytes >= maxBytes) break;
+            delivery = poll();
+        }
+        return deliveries;
+    }
+
     private QueueingConsumer.Delivery poll() {
         QueueingConsumer.Delivery delivery = deliveries.poll();
         if (stopSignal.equals(delivery) || shutdown != null || cancelled != null) {
@@ -131,12 +166,42 @@ public class RabbitMQConsumer implements Consumer, AutoCloseable {
         if (Thread.interrupted()) throw new InterruptedException();
     }
 
+    boolean hasPendingDeliveries() {
+        return !deliveries.isEmpty();
+    }
+
+    // limit unacknowledged messages of whole channel, takes effect together with prefetch count of consumer
+    void prefetch(int prefetchCount) {
+        try {
+            channel.basicQos(prefetchCount, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public void acknowledgeAll(long deliveryTag) {
         acknowledge(deliveryTag, true);
+        if (deliveryTag == 0) unacknowledgedDeliveryTags.clear();
+        else unacknowledgedDeliveryTags.headSet(deliveryTag, true).clear();
     }
 
     public void acknowledge(long deliveryTag) {
         acknowledge(deliveryTag, false);
+        unacknowledgedDeliveryTags.remove(deliveryTag);
+    }
+
+    // deliveryTags must be in ascending order, use one cumulative ack if no other unacknowledged delivery before last one,
+    // other handlers only remove their tags after ack, so cumulative ack never covers delivery acknowledged by others later
+    public void acknowledge(List<Long> deliveryTags) {
+        long lastDeliveryTag = deliveryTags.get(deliveryTags.size() - 1);
+        if (unacknowledgedDeliveryTags.headSet(lastDeliveryTag, true).size() == deliveryTags.size()) {
+            acknowledge(lastDeliveryTag, true);
+        } else {
+            for (Long deliveryTag : deliveryTags) {
+                acknowledge(deliveryTag, false);
+            }
+        }
+        unacknowledgedDeliveryTags.removeAll(deliveryTags);
     }
 
     private void acknowledge(long deliveryTag, boolean multiple) {
@@ -20,6 +20,7 @@ import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeoutException;
@@ -37,6 +38,8 @@ public final class RabbitMQImpl implements RabbitMQ {
     private final ExecutorService workerExecutor;
     private final ScheduledExecutorService heartbeatExecutor;
     private final Lock lock = new ReentrantLock();
+    private final AsyncPublisher asyncPublisher;
+    private volatile boolean asyncPublisherStarted;
     private List<Address> addresses;
     private long slowOperationThresholdInNanos = Duration.ofMillis(100).toNanos();
     private volatile Connection connection;
@@ -53,10 +56,13 @@ public final class RabbitMQImpl implements RabbitMQ {
         pool.name("rabbitmq");
         pool.size(1, 50);
         pool.maxIdleTime(Duration.ofMinutes(30));
+        pool.validator(Channel::isOpen);
         timeout(Duration.ofSeconds(5));
+        asyncPublisher = new AsyncPublisher("rabbitMQ-publisher", 10000, this::createChannel);
     }
 
     public void close() {
+        if (asyncPublisherStarted) asyncPublisher.stop();
         if (connection != null) {
             logger.info("close rabbitMQ client, hosts={}", addresses);
             try {
@@ -88,6 +94,11 @@ public final class RabbitMQImpl implements RabbitMQ {
         pool.checkoutTimeout(timeout);
     }
 
+    public void publishConfirm(int batchSize, Duration batchInterval) {
+        asyncPublisher.batchSize = batchSize;
+        asyncPublisher.batchIntervalInNanos = batchInterval.toNanos();
+    }
+
     public void slowOperationThreshold(Duration threshold) {
         slowOperationThresholdInNanos = threshold.toNanos();
     }
@@ -119,6 +130,49 @@ public final class RabbitMQImpl implements RabbitMQ {
         }
     }
 
+    @Override
+    public void publish(String exchange, String routingKey, List<byte[]> messages, AMQP.BasicProperties properties) {
+        StopWatch watch = new StopWatch();
+        PoolItem<Channel> item = pool.borrowItem();
+        try {
+            Channel channel = item.resource;
+            for (byte[] message : messages) {
+                channel.basicPublish(exchange, routingKey, properties, message);
+            }
+        } catch (AlreadyClosedException e) {
+            item.broken = true;
+            throw e;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("rabbitMQ", elapsedTime);
+            logger.debug("publish, exchange={}, routingKey={}, size={}, elapsedTime={}", exchange, routingKey, messages.size(), elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+        if (!asyncPublisherStarted) startAsyncPublisher();
+        logger.debug("publish async, exchange={}, routingKey={}", exchange, routingKey);
+        return asyncPublisher.publish(exchange, routingKey, message, properties);
+    }
+
+    private void startAsyncPublisher() {
+        lock.lock();
+        try {
+            if (!asyncPublisherStarted) {
+                asyncPublisher.start();
+                asyncPublisherStarted = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private void checkSlowOperation(long elapsedTime) {
         if (elapsedTime > slowOperationThresholdInNanos) {
             logger.warn(Markers.errorCode("SLOW_RABBITMQ"), "slow rabbitMQ operation, elapsedTime={}", elapsedTime);
@@ -3,9 +3,12 @@ package core.framework.impl.queue;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.QueueingConsumer;
 import core.framework.api.module.MessageHandlerConfig;
+import core.framework.api.log.Markers;
+import core.framework.api.queue.BulkMessageHandler;
 import core.framework.api.queue.Message;
 import core.framework.api.queue.MessageHandler;
 import core.framework.api.util.Exceptions;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import core.framework.api.util.Strings;
 import core.framework.api.util.Threads;
@@ -18,12 +21,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
+ * listener thread only takes next delivery when in flight handlers are below current concurrency, which is tuned by ConcurrencyController within pool size,
+ * and prefetch follows concurrency, so slow handlers do not pile up tasks
+ * <p>
+ * messages of bulk handler are collected by listener thread until reaching max size or max wait time, and handled in one action,
+ * if bulk handler fails, messages are handled one by one to isolate the failed message
+ * <p>
+ * messages with partition key are dispatched by hash of key to single thread lanes, so messages with same key are handled in order,
+ * lanes are not counted in concurrency of handlers, so hot key does not block other lanes and message types, prefetch reserves room for each lane,
+ * every delivery is acknowledged individually when done, so out of order completion across lanes is safe
+ *
  * @author neo
  */
 public final class RabbitMQListener implements MessageHandlerConfig {
@@ -38,9 +58,22 @@ public final class RabbitMQListener implements MessageHandlerConfig {
     private final LogManager logManager;
     private final MessageValidator validator;
     private final Map<String, MessageHandler> handlers = Maps.newHashMap();
+    private final Map<String, MessageBulk> bulks = Maps.newHashMap();
+    private final Map<String, Function> partitionKeys = Maps.newHashMap();
     private final Map<String, JSONReader> readers = Maps.newHashMap();
-    private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private final Map<String, MessageTypeStat> messageTypeStats = Maps.newConcurrentHashMap();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger laneInFlight = new AtomicInteger();
+    private int minPoolSize = Runtime.getRuntime().availableProcessors();
+    private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+    private int maxBulkSize;
+    private int partitions = Runtime.getRuntime().availableProcessors();
+    private ExecutorService[] lanes;
+    private ConcurrencyController controller;
     private ExecutorService handlerExecutor;
+    private volatile int prefetch;
+    private long lastAdjustTime;
+    private boolean saturated;
 
     public RabbitMQListener(RabbitMQ rabbitMQ, String queue, MessageValidator validator, LogManager logManager) {
         this.queue = queue;
@@ -50,10 +83,21 @@ public final class RabbitMQListener implements MessageHandlerConfig {
         listenerThread = new Thread(() -> {
             logger.info("rabbitMQ listener started, queue={}", queue);
             while (!stop.get()) {
-                try (RabbitMQConsumer consumer = rabbitMQ.consumer(queue, poolSize * 2)) { // prefetch one more for each handler to improve throughput
+                try (RabbitMQConsumer consumer = rabbitMQ.consumer(queue, maxPoolSize * 2 + reservedPrefetch())) { // prefetch one more for each handler to improve throughput
+                    prefetch = 0;
+                    bulks.values().forEach(MessageBulk::clear);
                     while (!stop.get()) {
-                        QueueingConsumer.Delivery delivery = consumer.nextDelivery();
-                        handlerExecutor.submit(() -> handle(consumer, delivery));
+                        long waitTime = bulkWaitTime(System.nanoTime());
+                        QueueingConsumer.Delivery delivery = waitTime < 0 ? consumer.nextDelivery() : consumer.nextDelivery(waitTime);
+                        if (delivery != null) {
+                            MessageBulk bulk = bulks.get(delivery.getProperties().getType());
+                            if (bulk == null) {
+                                dispatch(consumer, delivery);
+                            } else if (bulk.add(delivery, System.nanoTime())) {
+                                submit(consumer, bulk);
+                            }
+                        }
+                        submitExpiredBulks(consumer);
                     }
                 } catch (Throwable e) {
                     if (!stop.get()) {  // if not initiated by shutdown, exception types can be ShutdownSignalException, InterruptedException
@@ -72,48 +116,297 @@ public final class RabbitMQListener implements MessageHandlerConfig {
 
         validator.register(messageClass);
         String messageType = messageClass.getDeclaredAnnotation(Message.class).name();
+        if (bulks.containsKey(messageType)) throw Exceptions.error("found duplicate message handler, messageType={}", messageType);
         readers.put(messageType, JSONReader.of(messageClass));
         handlers.put(messageType, handler);
         return this;
     }
 
+    @Override
+    public <T> MessageHandlerConfig handle(Class<T> messageClass, MessageHandler<T> handler, Function<T, String> partitionKey) {
+        handle(messageClass, handler);
+        partitionKeys.put(messageClass.getDeclaredAnnotation(Message.class).name(), partitionKey);
+        return this;
+    }
+
+    @Override
+    public MessageHandlerConfig partitions(int partitions) {
+        this.partitions = partitions;
+        return this;
+    }
+
+    @Override
+    public <T> MessageHandlerConfig handle(Class<T> messageClass, BulkMessageHandler<T> handler, int maxSize, Duration maxWait) {
+        if (handler.getClass().isSynthetic())
+            throw Exceptions.error("handler class must not be anonymous or lambda, please create static class, handlerClass={}", handler.getClass().getCanonicalName());
+        if (maxSize <= 0) throw Exceptions.error("maxSize must be greater than 0, maxSize={}", maxSize);
+
+        validator.register(messageClass);
+        String messageType = messageClass.getDeclaredAnnotation(Message.class).name();
+        if (handlers.containsKey(messageType)) throw Exceptions.error("found duplicate message handler, messageType={}", messageType);
+        readers.put(messageType, JSONReader.of(messageClass));
+        bulks.put(messageType, new MessageBulk(messageType, handler, maxSize, maxWait.toNanos()));
+        maxBulkSize = Math.max(maxBulkSize, maxSize);
+        return this;
+    }
+
     @Override
     public MessageHandlerConfig poolSize(int poolSize) {
-        this.poolSize = poolSize;
+        return poolSize(poolSize, poolSize);
+    }
+
+    @Override
+    public MessageHandlerConfig poolSize(int minPoolSize, int maxPoolSize) {
+        this.minPoolSize = minPoolSize;
+        this.maxPoolSize = maxPoolSize;
         return this;
     }
 
     public void start() {
-        handlerExecutor = ThreadPools.cachedThreadPool(poolSize, "rabbitMQ-" + queue + "-handler-");
+        controller = new ConcurrencyController(minPoolSize, maxPoolSize, Runtime.getRuntime().availableProcessors() * 2);
+        handlerExecutor = ThreadPools.cachedThreadPool(maxPoolSize, "rabbitMQ-" + queue + "-handler-");
+        if (!partitionKeys.isEmpty()) {
+            lanes = new ExecutorService[partitions];
+            for (int i = 0; i < partitions; i++) {
+                lanes[i] = ThreadPools.cachedThreadPool(1, "rabbitMQ-" + queue + "-lane-" + i + "-");
+            }
+        }
         listenerThread.start();
     }
 
+    private void dispatch(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery) throws InterruptedException {
+        String messageType = delivery.getProperties().getType();
+        @SuppressWarnings("unchecked")
+        Function<Object, String> partitionKey = messageType == null ? null : partitionKeys.get(messageType);
+        if (partitionKey == null) {
+            submit(consumer, handlerExecutor, () -> handle(consumer, delivery, null));
+            return;
+        }
+
+        Object message = null;
+        String key = null;
+        try {
+            message = readers.get(messageType).fromJSON(delivery.getBody());
+            key = partitionKey.apply(message);
+        } catch (Throwable e) {
+            logger.debug("failed to get partition key, handle in first lane", e);   // error will be logged by handler when parsing again
+        }
+        Object parsedMessage = message;
+        ExecutorService lane = lanes[partition(key, lanes.length)];
+        laneInFlight.incrementAndGet();
+        lane.submit(() -> handleInLane(consumer, delivery, parsedMessage));
+        adjustConcurrency(consumer);
+    }
+
+    static int partition(String key, int partitions) {
+        if (key == null) return 0;
+        return (key.hashCode() & Integer.MAX_VALUE) % partitions;
+    }
+
+    private void submit(RabbitMQConsumer consumer, ExecutorService executor, Callable<Void> task) throws InterruptedException {
+        waitForCapacity(consumer);
+        inFlight.incrementAndGet();
+        executor.submit(task);
+        adjustConcurrency(consumer);
+    }
+
+    private void submit(RabbitMQConsumer consumer, MessageBulk bulk) throws InterruptedException {
+        List<QueueingConsumer.Delivery> deliveries = bulk.take();
+        submit(consumer, handlerExecutor, () -> handle(consumer, bulk, deliveries));
+    }
+
+    private void submitExpiredBulks(RabbitMQConsumer consumer) throws InterruptedException {
+        for (MessageBulk bulk : bulks.values()) {
+            if (bulk.waitTime(System.nanoTime()) == 0) submit(consumer, bulk);
+        }
+    }
+
+    // return min wait time of pending bulks, or -1 if no pending bulk
+    private long bulkWaitTime(long now) {
+        long waitTime = -1;
+        for (MessageBulk bulk : bulks.values()) {
+            long bulkWaitTime = bulk.waitTime(now);
+            if (bulkWaitTime >= 0 && (waitTime < 0 || bulkWaitTime < waitTime)) waitTime = bulkWaitTime;
+        }
+        return waitTime;
+    }
+
+    private void waitForCapacity(RabbitMQConsumer consumer) throws InterruptedException {
+        while (inFlight.get() >= controller.concurrency()) {
+            saturated = true;
+            LockSupport.parkNanos(10_000_000);  // handler unparks listener thread when finishes, here is to adjust concurrency periodically even no handler finishes
+            if (Thread.interrupted()) throw new InterruptedException();
+            adjustConcurrency(consumer);
+        }
+    }
+
+    private void adjustConcurrency(RabbitMQConsumer consumer) {
+        long now = System.nanoTime();
+        if (now - lastAdjustTime < 1_000_000_000) return;
+        lastAdjustTime = now;
+
+        int concurrency = controller.adjust(saturated && consumer.hasPendingDeliveries(), now);
+        saturated = false;
+        if (prefetch != concurrency * 2 + reservedPrefetch()) {
+            prefetch = concurrency * 2 + reservedPrefetch();
+            consumer.prefetch(prefetch);
+            logger.debug("adjust concurrency, queue={}, concurrency={}, prefetch={}", queue, concurrency, prefetch);
+        }
+    }
+
     public void stop() {
         logger.info("stop rabbitMQ listener, queue={}", queue);
         stop.set(true);
         listenerThread.interrupt();
         handlerExecutor.shutdown();
+        if (lanes != null) {
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+        }
         try {
             handlerExecutor.awaitTermination(10, TimeUnit.SECONDS);     // wait 10 seconds to finish current tasks
+            if (lanes != null) {
+                for (ExecutorService lane : lanes) {
+                    lane.awaitTermination(10, TimeUnit.SECONDS);
+                }
+            }
         } catch (InterruptedException e) {
             logger.warn("failed to wait all tasks to finish", e);
         }
     }
 
-    private Void handle(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery) throws Exception {
+    private Void handle(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery, Object message) {
+        long start = System.nanoTime();
         try {
-            logManager.begin("=== message handling begin ===");
-            handle(delivery);
+            process(consumer, delivery, message);
+            return null;
+        } finally {
+            finish(delivery.getProperties().getType(), start);
+        }
+    }
+
+    private Void handle(RabbitMQConsumer consumer, MessageBulk bulk, List<QueueingConsumer.Delivery> deliveries) {
+        long start = System.nanoTime();
+        try {
+            if (process(bulk, deliveries)) {
+                acknowledge(consumer, deliveries);
+            } else {
+                for (QueueingConsumer.Delivery delivery : deliveries) {
+                    process(consumer, delivery, null);
+                }
+            }
             return null;
+        } finally {
+            finish(bulk.messageType, start);
+        }
+    }
+
+    // message is parsed by listener thread if partitioned
+    private void process(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery, Object parsedMessage) {
+        try {
+            logManager.begin("=== message handling begin ===");
+            handle(delivery, parsedMessage);
         } catch (Throwable e) {
             logManager.logError(e);
-            throw e;
         } finally {
             acknowledge(consumer, delivery);
             logManager.end("=== message handling end ===");
         }
     }
 
+    private <T> boolean process(MessageBulk bulk, List<QueueingConsumer.Delivery> deliveries) {
+        try {
+            logManager.begin("=== bulk message handling begin ===");
+            ActionLog actionLog = logManager.currentActionLog();
+            actionLog.action(action(bulk.messageType));
+            actionLog.context("messageType", bulk.messageType);
+            actionLog.context("handler", bulk.handler.getClass().getCanonicalName());
+            actionLog.context("bulkSize", deliveries.size());
+
+            @SuppressWarnings("unchecked")
+            JSONReader<T> reader = readers.get(bulk.messageType);
+            List<T> messages = Lists.newArrayList();
+            for (QueueingConsumer.Delivery delivery : deliveries) {
+                Map<String, Object> headers = delivery.getProperties().getHeaders();
+                if (headers != null && "true".equals(String.valueOf(headers.get(HEADER_TRACE)))) {
+                    actionLog.trace = true;
+                }
+                byte[] body = delivery.getBody();
+                logger.debug("body={}", LogParam.of(body));
+                T message = reader.fromJSON(body);
+                validator.validate(message);
+                messages.add(message);
+            }
+
+            @SuppressWarnings("unchecked")
+            BulkMessageHandler<T> handler = bulk.handler;
+            handler.handle(messages);
+            return true;
+        } catch (Throwable e) {
+            logger.warn(Markers.errorCode("FAILED_TO_HANDLE_BULK"), "failed to handle bulk messages, handle one by one, error={}", e.getMessage(), e);
+            return false;
+        } finally {
+            logManager.end("=== bulk message handling end ===");
+        }
+    }
+
+    private Void handleInLane(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery, Object message) {
+        long start = System.nanoTime();
+        try {
+            process(consumer, delivery, message);
+            return null;
+        } finally {
+            recordMessageTypeStat(delivery.getProperties().getType(), System.nanoTime() - start);
+            laneInFlight.decrementAndGet();
+        }
+    }
+
+    private void finish(String messageType, long start) {
+        long elapsedTime = System.nanoTime() - start;
+        controller.record(elapsedTime);
+        recordMessageTypeStat(messageType, elapsedTime);
+        inFlight.decrementAndGet();
+        LockSupport.unpark(listenerThread);
+    }
+
+    private void recordMessageTypeStat(String messageType, long elapsedTime) {
+        messageTypeStats.computeIfAbsent(messageType == null ? "" : messageType, key -> new MessageTypeStat()).record(elapsedTime);
+    }
+
+    // allow one bulk to fill up while handlers are busy, and each lane to have next message queued
+    private int reservedPrefetch() {
+        return maxBulkSize + (partitionKeys.isEmpty() ? 0 : partitions * 2);
+    }
+
+    public String queue() {
+        return queue;
+    }
+
+    public int minPoolSize() {
+        return minPoolSize;
+    }
+
+    public int maxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int concurrency() {
+        return controller == null ? 0 : controller.concurrency();
+    }
+
+    public int inFlight() {
+        return inFlight.get() + laneInFlight.get();
+    }
+
+    public int prefetch() {
+        return prefetch;
+    }
+
+    public Map<String, MessageTypeStat> messageTypeStats() {
+        return messageTypeStats;
+    }
+
     private void acknowledge(RabbitMQConsumer consumer, QueueingConsumer.Delivery delivery) {
         try {
             consumer.acknowledge(delivery.getEnvelope().getDeliveryTag());
@@ -122,7 +415,17 @@ public final class RabbitMQListener implements MessageHandlerConfig {
         }
     }
 
-    private <T> void handle(QueueingConsumer.Delivery delivery) throws Exception {
+    private void acknowledge(RabbitMQConsumer consumer, List<QueueingConsumer.Delivery> deliveries) {
+        try {
+            List<Long> deliveryTags = deliveries.stream().map(delivery -> delivery.getEnvelope().getDeliveryTag()).collect(Collectors.toList());
+            consumer.acknowledge(deliveryTags);
+        } catch (Throwable e) {
+            logManager.logError(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void handle(QueueingConsumer.Delivery delivery, Object parsedMessage) throws Exception {
         ActionLog actionLog = logManager.currentActionLog();
 
         AMQP.BasicProperties properties = delivery.getProperties();
@@ -155,17 +458,25 @@ public final class RabbitMQListener implements MessageHandlerConfig {
             actionLog.context("client", appId);
         }
 
-        @SuppressWarnings("unchecked")
-        JSONReader<T> reader = readers.get(messageType);
-        if (reader == null) throw Exceptions.error("unknown message type, messageType={}", messageType);
-        T message = reader.fromJSON(body);
+        T message;
+        if (parsedMessage != null) {
+            message = (T) parsedMessage;
+        } else {
+            JSONReader<T> reader = readers.get(messageType);
+            if (reader == null) throw Exceptions.error("unknown message type, messageType={}", messageType);
+            message = reader.fromJSON(body);
+        }
         validator.validate(message);
 
-        @SuppressWarnings("unchecked")
         MessageHandler<T> handler = handlers.get(messageType);
-        actionLog.context("handler", handler.getClass().getCanonicalName());
-
-        handler.handle(message);
+        if (handler != null) {
+            actionLog.context("handler", handler.getClass().getCanonicalName());
+            handler.handle(message);
+        } else {
+            BulkMessageHandler<T> bulkHandler = bulks.get(messageType).handler;    // reader exists, so handler is either single or bulk
+            actionLog.context("handler", bulkHandler.getClass().getCanonicalName());
+            bulkHandler.handle(Collections.singletonList(message));
+        }
     }
 
     String action(String messageType) {
@@ -3,13 +3,16 @@ package core.framework.impl.queue;
 import com.rabbitmq.client.AMQP;
 import core.framework.api.queue.Message;
 import core.framework.api.queue.MessagePublisher;
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import core.framework.api.util.Network;
 import core.framework.impl.json.JSONWriter;
 import core.framework.impl.log.ActionLog;
 import core.framework.impl.log.LogManager;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author neo
@@ -43,9 +46,28 @@ public class RabbitMQPublisher<T> implements MessagePublisher<T> {
         publish(exchange, routingKey, message, 0);
     }
 
+    @Override
+    public void publishAll(List<T> messages) {
+        List<byte[]> bodies = Lists.newArrayList();
+        for (T message : messages) {
+            validator.validate(message);
+            bodies.add(writer.toJSON(message));
+        }
+        rabbitMQ.publish(exchange, routingKey, bodies, properties(0));
+    }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(T message) {
+        validator.validate(message);
+        return rabbitMQ.publishAsync(exchange, routingKey, writer.toJSON(message), properties(0));
+    }
+
     private void publish(String exchange, String routingKey, T message, int priority) {
         validator.validate(message);
+        rabbitMQ.publish(exchange, routingKey, writer.toJSON(message), properties(priority));
+    }
 
+    private AMQP.BasicProperties properties(int priority) {
         Map<String, Object> headers = Maps.newHashMap();
         headers.put(RabbitMQListener.HEADER_CLIENT_IP, Network.localHostAddress());
 
@@ -59,7 +81,7 @@ public class RabbitMQPublisher<T> implements MessagePublisher<T> {
 
         linkContext(builder, headers);
 
-        rabbitMQ.publish(exchange, routingKey, writer.toJSON(message), builder.build());
+        return builder.build();
     }
 
     private void linkContext(AMQP.BasicProperties.Builder builder, Map<String, Object> headers) {
@@ -0,0 +1,52 @@
+package core.framework.impl.redis;
+
+import java.util.Arrays;
+
+/**
+ * place each node on hash ring with virtual nodes, key belongs to first node clockwise,
+ * adding or removing one node only moves keys of that node
+ *
+ * @author neo
+ */
+final class ConsistentHash {
+    private static final int VIRTUAL_NODES = 160;
+
+    // String.hashCode() is specified and cached, finalizer of murmur3 spreads it over ring
+    static long hash(String value) {
+        int hash = value.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash & 0xFFFFFFFFL;
+    }
+
+    private final long[] points;
+    private final int[] nodes;
+
+    ConsistentHash(String[] hosts) {
+        int size = hosts.length * VIRTUAL_NODES;
+        long[] ring = new long[size];
+        for (int node = 0; node < hosts.length; node++) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                // point in high bits, node index in low 16 bits, so sorting keeps them together
+                ring[node * VIRTUAL_NODES + i] = (hash(hosts[node] + "#" + i) << 16) | node;
+            }
+        }
+        Arrays.sort(ring);
+        points = new long[size];
+        nodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = ring[i] >>> 16;
+            nodes[i] = (int) (ring[i] & 0xFFFF);
+        }
+    }
+
+    int node(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) index = -index - 1;
+        if (index == points.length) index = 0;
+        return nodes[index];
+    }
+}
@@ -3,6 +3,7 @@ package core.framework.impl.redis;
 import core.framework.api.log.ActionLogContext;
 import core.framework.api.log.Markers;
 import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisPipeline;
 import core.framework.api.util.Charsets;
 import core.framework.api.util.Maps;
 import core.framework.api.util.StopWatch;
@@ -13,6 +14,7 @@ import core.framework.impl.resource.PoolItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Pipeline;
 import redis.clients.jedis.Protocol;
 import redis.clients.jedis.exceptions.JedisConnectionException;
@@ -22,6 +24,7 @@ import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -40,6 +43,7 @@ public final class RedisImpl implements Redis {
         pool.name("redis");
         pool.size(5, 50);
         pool.maxIdleTime(Duration.ofMinutes(30));
+        pool.validator(client -> "PONG".equals(client.ping()));
         timeout(Duration.ofSeconds(5));
     }
 
@@ -196,6 +200,11 @@ public final class RedisImpl implements Redis {
     }
 
     public Map<String, byte[]> mgetBytes(String... keys) {
+        return mgetBytes(keys, true);
+    }
+
+    // sharded redis tracks operation on all hosts as one, so not to track on each host
+    Map<String, byte[]> mgetBytes(String[] keys, boolean track) {
         StopWatch watch = new StopWatch();
         PoolItem<BinaryJedis> item = pool.borrowItem();
         try {
@@ -214,7 +223,7 @@ public final class RedisImpl implements Redis {
         } finally {
             pool.returnItem(item);
             long elapsedTime = watch.elapsedTime();
-            ActionLogContext.track("redis", elapsedTime);
+            if (track) ActionLogContext.track("redis", elapsedTime);
             logger.debug("mget, keys={}, elapsedTime={}", keys, elapsedTime);
             checkSlowOperation(elapsedTime);
         }
@@ -222,6 +231,10 @@ public final class RedisImpl implements Redis {
 
     @Override
     public void mset(Map<String, String> values) {
+        mset(values, true);
+    }
+
+    void mset(Map<String, String> values, boolean track) {
         StopWatch watch = new StopWatch();
         PoolItem<BinaryJedis> item = pool.borrowItem();
         try {
@@ -241,13 +254,17 @@ public final class RedisImpl implements Redis {
         } finally {
             pool.returnItem(item);
             long elapsedTime = watch.elapsedTime();
-            ActionLogContext.track("redis", elapsedTime);
+            if (track) ActionLogContext.track("redis", elapsedTime);
             logger.debug("mset, values={}, elapsedTime={}", values, elapsedTime);
             checkSlowOperation(elapsedTime);
         }
     }
 
     public void mset(Map<String, byte[]> values, Duration expiration) {
+        mset(values, expiration, true);
+    }
+
+    void mset(Map<String, byte[]> values, Duration expiration, boolean track) {
         StopWatch watch = new StopWatch();
         int expirationInSeconds = (int) expiration.getSeconds();
         PoolItem<BinaryJedis> item = pool.borrowItem();
@@ -264,7 +281,7 @@ public final class RedisImpl implements Redis {
         } finally {
             pool.returnItem(item);
             long elapsedTime = watch.elapsedTime();
-            ActionLogContext.track("redis", elapsedTime);
+            if (track) ActionLogContext.track("redis", elapsedTime);
             logger.debug("mset, values={}, expiration={}, elapsedTime={}", LogParam.of(values), expiration, elapsedTime);
             checkSlowOperation(elapsedTime);
         }
@@ -315,6 +332,63 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    @Override
+    public RedisPipeline pipeline() {
+        return new RedisPipelineImpl(key -> this, commands -> commands.forEach((redis, redisCommands) -> redis.execute(redisCommands, true)));
+    }
+
+    // send all commands in one round trip, and track as one redis operation
+    void execute(List<Consumer<Pipeline>> commands, boolean track) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        try {
+            Pipeline pipeline = item.resource.pipelined();
+            for (Consumer<Pipeline> command : commands) {
+                command.accept(pipeline);
+            }
+            pipeline.sync();
+        } catch (Throwable e) {     // commands may be partially buffered or replies unread, connection is not reusable
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            if (track) ActionLogContext.track("redis", elapsedTime);
+            logger.debug("pipeline, commands={}, elapsedTime={}", commands.size(), elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    public void publish(String channel, byte[] message) {
+        StopWatch watch = new StopWatch();
+        PoolItem<BinaryJedis> item = pool.borrowItem();
+        try {
+            item.resource.publish(encode(channel), message);
+        } catch (JedisConnectionException e) {
+            item.broken = true;
+            throw e;
+        } finally {
+            pool.returnItem(item);
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("publish, channel={}, message={}, elapsedTime={}", channel, LogParam.of(message), elapsedTime);
+            checkSlowOperation(elapsedTime);
+        }
+    }
+
+    // subscribe blocks current thread until listener unsubscribes or connection breaks, it uses dedicated connection without read timeout
+    public void subscribe(String channel, BinaryJedisPubSub listener) {
+        if (host == null) throw new Error("host must not be null");
+        BinaryJedis client = new BinaryJedis(host, Protocol.DEFAULT_PORT, (int) timeout.toMillis(), 0);
+        try {
+            client.connect();
+            logger.info("subscribe to redis channel, host={}, channel={}", host, channel);
+            client.subscribe(listener, encode(channel));
+        } finally {
+            client.close();
+        }
+    }
+
     private byte[] encode(String value) {
         return Strings.bytes(value);
     }
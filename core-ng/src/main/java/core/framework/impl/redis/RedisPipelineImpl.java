@@ -0,0 +1,133 @@
+package core.framework.impl.redis;
+
+import core.framework.api.redis.RedisPipeline;
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.api.util.Strings;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * @author neo
+ */
+final class RedisPipelineImpl implements RedisPipeline {
+    private static final byte[] NX = Strings.bytes("NX");
+    private static final byte[] EX = Strings.bytes("EX");
+
+    private final Function<String, RedisImpl> router;
+    private final Consumer<Map<RedisImpl, List<Consumer<Pipeline>>>> executor;
+    final Map<RedisImpl, List<Consumer<Pipeline>>> commands = Maps.newLinkedHashMap();
+    private boolean executed;
+
+    RedisPipelineImpl(Function<String, RedisImpl> router, Consumer<Map<RedisImpl, List<Consumer<Pipeline>>>> executor) {
+        this.router = router;
+        this.executor = executor;
+    }
+
+    @Override
+    public Supplier<String> get(String key) {
+        byte[] redisKey = encode(key);
+        Result<byte[]> result = new Result<>();
+        add(key, pipeline -> result.response = pipeline.get(redisKey));
+        return () -> decode(result.get());
+    }
+
+    @Override
+    public void set(String key, String value) {
+        byte[] redisKey = encode(key);
+        byte[] redisValue = encode(value);
+        add(key, pipeline -> pipeline.set(redisKey, redisValue));
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        byte[] redisKey = encode(key);
+        byte[] redisValue = encode(value);
+        add(key, pipeline -> pipeline.setex(redisKey, (int) expiration.getSeconds(), redisValue));
+    }
+
+    @Override
+    public Supplier<Boolean> setIfAbsent(String key, String value, Duration expiration) {
+        byte[] redisKey = encode(key);
+        byte[] redisValue = encode(value);
+        Result<String> result = new Result<>();
+        add(key, pipeline -> result.response = pipeline.set(redisKey, redisValue, NX, EX, (int) expiration.getSeconds()));
+        return () -> "OK".equals(result.get());
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        byte[] redisKey = encode(key);
+        add(key, pipeline -> pipeline.expire(redisKey, (int) duration.getSeconds()));
+    }
+
+    @Override
+    public void del(String key) {
+        byte[] redisKey = encode(key);
+        add(key, pipeline -> pipeline.del(redisKey));
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hgetAll(String key) {
+        byte[] redisKey = encode(key);
+        Result<Map<byte[], byte[]>> result = new Result<>();
+        add(key, pipeline -> result.response = pipeline.hgetAll(redisKey));
+        return () -> {
+            Map<byte[], byte[]> redisValues = result.get();
+            Map<String, String> values = Maps.newHashMapWithExpectedSize(redisValues.size());
+            for (Map.Entry<byte[], byte[]> entry : redisValues.entrySet()) {
+                values.put(decode(entry.getKey()), decode(entry.getValue()));
+            }
+            return values;
+        };
+    }
+
+    @Override
+    public void hmset(String key, Map<String, String> values) {
+        byte[] redisKey = encode(key);
+        Map<byte[], byte[]> redisValues = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            redisValues.put(encode(entry.getKey()), encode(entry.getValue()));
+        }
+        add(key, pipeline -> pipeline.hmset(redisKey, redisValues));
+    }
+
+    @Override
+    public void execute() {
+        if (executed) throw new Error("pipeline is already executed");
+        executed = true;
+        executor.accept(commands);  // one round trip per host
+    }
+
+    // encode arguments before adding, so invalid argument fails on caller without leaving partial commands on connection
+    private void add(String key, Consumer<Pipeline> command) {
+        if (executed) throw new Error("pipeline is already executed");
+        commands.computeIfAbsent(router.apply(key), redis -> Lists.newArrayList()).add(command);
+    }
+
+    private byte[] encode(String value) {
+        return Strings.bytes(value);
+    }
+
+    private String decode(byte[] value) {
+        if (value == null) return null;
+        return new String(value, Charsets.UTF_8);
+    }
+
+    private static final class Result<T> {
+        Response<T> response;
+
+        T get() {
+            if (response == null) throw new Error("pipeline is not executed");
+            return response.get();
+        }
+    }
+}
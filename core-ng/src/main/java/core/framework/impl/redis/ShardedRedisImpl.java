@@ -0,0 +1,267 @@
+package core.framework.impl.redis;
+
+import core.framework.api.log.ActionLogContext;
+import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisPipeline;
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.api.util.StopWatch;
+import core.framework.impl.async.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedisPubSub;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+
+/**
+ * distribute keys to multiple redis hosts by consistent hashing, each host has its own client and pool,
+ * multi key operations are split by host and executed in parallel
+ *
+ * @author neo
+ */
+public final class ShardedRedisImpl implements Redis {
+    private final Logger logger = LoggerFactory.getLogger(ShardedRedisImpl.class);
+    private final String name;
+    private final List<RedisImpl> shards = Lists.newArrayList();
+    private ConsistentHash hash;
+    private ThreadPoolExecutor executor;
+    private int minPoolSize = 5;
+    private int maxPoolSize = 50;
+    private Duration timeout = Duration.ofSeconds(5);
+    private Duration slowOperationThreshold = Duration.ofMillis(500);
+    private Integer idleHeadroom;
+
+    public ShardedRedisImpl(String name) {
+        this.name = name;
+    }
+
+    // return created clients, pool name is name of sharded redis if only one host, otherwise with index of host as suffix
+    public List<RedisImpl> hosts(String... hosts) {
+        if (!shards.isEmpty()) throw new Error("redis hosts are configured, please only configure hosts once");
+        if (hosts.length == 0) throw new Error("hosts must not be empty");
+
+        logger.info("create redis clients, name={}, hosts={}", name, hosts);
+        for (int i = 0; i < hosts.length; i++) {
+            RedisImpl shard = new RedisImpl();
+            shard.host(hosts[i]);
+            shard.pool.name(hosts.length == 1 ? name : name + "-" + i);
+            shard.pool.size(minPoolSize, maxPoolSize);
+            shard.timeout(timeout);
+            shard.slowOperationThreshold(slowOperationThreshold);
+            if (idleHeadroom != null) shard.pool.maintainInBackground(idleHeadroom);
+            shards.add(shard);
+        }
+        if (hosts.length > 1) {
+            hash = new ConsistentHash(hosts);
+            executor = ThreadPools.handOffThreadPool(maxPoolSize * hosts.length, name + "-");     // each concurrent request can fan out to all hosts
+        }
+        return shards;
+    }
+
+    public void poolSize(int minSize, int maxSize) {
+        minPoolSize = minSize;
+        maxPoolSize = maxSize;
+        shards.forEach(shard -> shard.pool.size(minSize, maxSize));
+        if (executor != null) executor.setMaximumPoolSize(maxSize * shards.size());
+    }
+
+    public void maintainPoolInBackground(int idleHeadroom) {
+        this.idleHeadroom = idleHeadroom;
+        shards.forEach(shard -> shard.pool.maintainInBackground(idleHeadroom));
+    }
+
+    public void timeout(Duration timeout) {
+        this.timeout = timeout;
+        shards.forEach(shard -> shard.timeout(timeout));
+    }
+
+    public void slowOperationThreshold(Duration threshold) {
+        slowOperationThreshold = threshold;
+        shards.forEach(shard -> shard.slowOperationThreshold(threshold));
+    }
+
+    public void start() {
+        shards.forEach(shard -> shard.pool.start());
+    }
+
+    public void close() {
+        shards.forEach(RedisImpl::close);
+        if (executor != null) executor.shutdown();
+    }
+
+    RedisImpl shard(String key) {
+        if (hash == null) return firstShard();
+        return shards.get(hash.node(key));
+    }
+
+    private RedisImpl firstShard() {
+        if (shards.isEmpty()) throw new Error("host must not be null");
+        return shards.get(0);
+    }
+
+    @Override
+    public String get(String key) {
+        return shard(key).get(key);
+    }
+
+    public byte[] getBytes(String key) {
+        return shard(key).getBytes(key);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        shard(key).set(key, value);
+    }
+
+    @Override
+    public void set(String key, String value, Duration expiration) {
+        shard(key).set(key, value, expiration);
+    }
+
+    public void set(String key, byte[] value, Duration expiration) {
+        shard(key).set(key, value, expiration);
+    }
+
+    @Override
+    public boolean setIfAbsent(String key, String value, Duration expiration) {
+        return shard(key).setIfAbsent(key, value, expiration);
+    }
+
+    @Override
+    public void expire(String key, Duration duration) {
+        shard(key).expire(key, duration);
+    }
+
+    @Override
+    public void del(String key) {
+        shard(key).del(key);
+    }
+
+    @Override
+    public Map<String, String> mget(String... keys) {
+        Map<String, byte[]> values = mgetBytes(keys);
+        Map<String, String> result = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+            result.put(entry.getKey(), new String(entry.getValue(), Charsets.UTF_8));
+        }
+        return result;
+    }
+
+    public Map<String, byte[]> mgetBytes(String... keys) {
+        Map<RedisImpl, List<String>> shardKeys = Maps.newLinkedHashMap();
+        for (String key : keys) {
+            shardKeys.computeIfAbsent(shard(key), shard -> Lists.newArrayList()).add(key);
+        }
+        List<Map<String, byte[]>> results = execute(shardKeys, (shard, values) -> shard.mgetBytes(values.toArray(new String[values.size()]), false));
+        if (results.size() == 1) return results.get(0);
+        Map<String, byte[]> values = Maps.newHashMapWithExpectedSize(keys.length);
+        results.forEach(values::putAll);
+        return values;
+    }
+
+    @Override
+    public void mset(Map<String, String> values) {
+        execute(split(values), (shard, shardValues) -> {
+            shard.mset(shardValues, false);
+            return null;
+        });
+    }
+
+    public void mset(Map<String, byte[]> values, Duration expiration) {
+        execute(split(values), (shard, shardValues) -> {
+            shard.mset(shardValues, expiration, false);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return shard(key).hgetAll(key);
+    }
+
+    @Override
+    public void hmset(String key, Map<String, String> values) {
+        shard(key).hmset(key, values);
+    }
+
+    @Override
+    public RedisPipeline pipeline() {
+        return new RedisPipelineImpl(this::shard, commands -> execute(commands, (shard, shardCommands) -> {
+            shard.execute(shardCommands, false);
+            return null;
+        }));
+    }
+
+    // pub/sub is not sharded, all nodes use channel on first host
+    public void publish(String channel, byte[] message) {
+        firstShard().publish(channel, message);
+    }
+
+    public void subscribe(String channel, BinaryJedisPubSub listener) {
+        firstShard().subscribe(channel, listener);
+    }
+
+    private <T> Map<RedisImpl, Map<String, T>> split(Map<String, T> values) {
+        Map<RedisImpl, Map<String, T>> shardValues = Maps.newLinkedHashMap();
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            shardValues.computeIfAbsent(shard(entry.getKey()), shard -> Maps.newHashMap()).put(entry.getKey(), entry.getValue());
+        }
+        return shardValues;
+    }
+
+    // operations on other hosts are handed off to executor, and first host runs in caller thread,
+    // operation must not track on each host, elapsed time of all is tracked as one redis operation in current action
+    <T, R> List<R> execute(Map<RedisImpl, T> shardValues, BiFunction<RedisImpl, T, R> operation) {
+        StopWatch watch = new StopWatch();
+        List<R> results = Lists.newArrayList();
+        try {
+            if (shardValues.size() <= 1) {
+                shardValues.forEach((shard, values) -> results.add(operation.apply(shard, values)));
+                return results;
+            }
+
+            List<Future<R>> futures = Lists.newArrayList();
+            RedisImpl firstShard = null;
+            T firstValues = null;
+            for (Map.Entry<RedisImpl, T> entry : shardValues.entrySet()) {
+                if (firstShard == null) {
+                    firstShard = entry.getKey();
+                    firstValues = entry.getValue();
+                } else {
+                    RedisImpl shard = entry.getKey();
+                    T values = entry.getValue();
+                    futures.add(executor.submit(() -> operation.apply(shard, values)));
+                }
+            }
+            results.add(operation.apply(firstShard, firstValues));
+            for (Future<R> future : futures) {
+                results.add(get(future));
+            }
+            return results;
+        } finally {
+            long elapsedTime = watch.elapsedTime();
+            ActionLogContext.track("redis", elapsedTime);
+            logger.debug("execute on hosts, hosts={}, elapsedTime={}", shardValues.size(), elapsedTime);
+        }
+    }
+
+    private <R> R get(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new Error(cause);
+        }
+    }
+}
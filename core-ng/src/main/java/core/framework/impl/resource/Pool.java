@@ -5,12 +5,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
-import java.time.Instant;
-import java.util.Iterator;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -20,15 +21,29 @@ import java.util.function.Supplier;
  * is to keep original exception, and simplify context variable access (read or write var within method),
  * <p>
  * the downside is boilerplate code, so to keep it only for internal
+ * <p>
+ * idle items are kept in lock free slots grouped by stripe, each thread borrows from and returns to its own stripe first (mostly the same item it used last time),
+ * and steals from other stripes when its own is empty, this is to avoid single lock contention with large number of worker threads
  *
  * @author neo
  */
 public final class Pool<T> {
-    final BlockingDeque<PoolItem<T>> idleItems = new LinkedBlockingDeque<>();
+    private static final int MAX_STRIPES = 16;
+    private static final long CREATION_CHECK_INTERVAL_IN_MS = 10;
+    private static final int SLOTS_PER_STRIPE = 4;
+    private static final int STRIPE_WIDTH = 16;    // each stripe takes 64 bytes (with compressed oops), to avoid false sharing between stripes
+
+    public final PoolMetrics metrics = new PoolMetrics();
+    final AtomicReferenceArray<PoolItem<T>> slots;
+    final LinkedTransferQueue<PoolItem<T>> idleQueue = new LinkedTransferQueue<>();     // overflow of slots, and to pass returned item to waiting threads
     private final Logger logger = LoggerFactory.getLogger(Pool.class);
     private final AtomicInteger total = new AtomicInteger(0);
+    private final AtomicInteger waiters = new AtomicInteger(0);
+    private final int stripeMask;
     private final Supplier<T> factory;
     private final ResourceCloseHandler<T> closeHandler;
+    private ResourceValidator<T> validator;
+    private PoolMaintainer<T> maintainer;
     private String name;
     private int minSize = 1;
     private int maxSize = 50;
@@ -36,14 +51,42 @@ public final class Pool<T> {
     private long checkoutTimeoutInMs = Duration.ofSeconds(30).toMillis();
 
     public Pool(Supplier<T> factory, ResourceCloseHandler<T> closeHandler) {
+        this(factory, closeHandler, Runtime.getRuntime().availableProcessors());
+    }
+
+    Pool(Supplier<T> factory, ResourceCloseHandler<T> closeHandler, int concurrency) {
         this.factory = factory;
         this.closeHandler = closeHandler;
+        int stripes = stripes(concurrency);
+        stripeMask = stripes - 1;
+        slots = new AtomicReferenceArray<>(stripes * STRIPE_WIDTH);
+    }
+
+    // round up to power of 2, to use bit mask to select stripe
+    private int stripes(int concurrency) {
+        int stripes = 1;
+        while (stripes < concurrency && stripes < MAX_STRIPES) {
+            stripes = stripes << 1;
+        }
+        return stripes;
     }
 
     public void name(String name) {
         this.name = name;
     }
 
+    public String name() {
+        return name;
+    }
+
+    public int minSize() {
+        return minSize;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
     public void size(int minSize, int maxSize) {
         this.minSize = minSize;
         this.maxSize = maxSize;
@@ -57,14 +100,34 @@ public final class Pool<T> {
         checkoutTimeoutInMs = checkoutTimeout.toMillis();
     }
 
+    public void validator(ResourceValidator<T> validator) {
+        this.validator = validator;
+    }
+
+    // create resources in background thread, to keep idle headroom, warm up and validate idle resources, must call start() to begin
+    public void maintainInBackground(int idleHeadroom) {
+        maintainer = new PoolMaintainer<>(this, idleHeadroom);
+    }
+
+    public void start() {
+        if (maintainer != null) maintainer.start();
+    }
+
     public PoolItem<T> borrowItem() {
-        PoolItem<T> item = idleItems.poll();
-        if (item != null) return item;
+        PoolItem<T> item = pollIdleItem();
+        if (item != null) {
+            metrics.checkout(0);
+            return item;
+        }
 
-        if (total.get() < maxSize) {
-            return createNewItem();
-        } else {
-            return waitNextAvailableItem();
+        long start = System.nanoTime();
+        try {
+            if (!reserveCapacity()) return waitNextAvailableItem(null);
+            if (maintainer == null) return createNewItem();
+            CompletableFuture<Void> creation = maintainer.createItem();    // request thread does not wait for creation, it takes whichever item is available first
+            return waitNextAvailableItem(creation);
+        } finally {
+            metrics.checkout(System.nanoTime() - start);
         }
     }
 
@@ -73,13 +136,85 @@ public final class Pool<T> {
             recycleItem(item);
         } else {
             item.returnTime = System.currentTimeMillis();
-            idleItems.push(item);
+            offerIdleItem(item);
+        }
+    }
+
+    private void offerIdleItem(PoolItem<T> item) {
+        if (!offerToSlot(currentStripe(), item)) {
+            idleQueue.offer(item);     // offer to queue will pass item to waiting thread directly if there is
+            return;
+        }
+
+        // waiting thread may already scanned slots before item was returned, so pass one idle item to it thru queue,
+        // the order of put item and check waiters is important, either waiting thread sees the item in slots or this thread sees the waiter
+        if (waiters.get() > 0) {
+            PoolItem<T> idleItem = pollFromSlots(currentStripe());
+            if (idleItem != null) idleQueue.offer(idleItem);
+        }
+    }
+
+    public int idleCount() {
+        int count = idleQueue.size();
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) count++;
+        }
+        return count;
+    }
+
+    public int totalCount() {
+        return total.get();
+    }
+
+    // queue is checked last, so overflowed items stay idle and can be recycled by refresh()
+    private PoolItem<T> pollIdleItem() {
+        PoolItem<T> item = pollFromSlots(currentStripe());
+        if (item != null) return item;
+        return idleQueue.poll();
+    }
+
+    private boolean offerToSlot(int stripe, PoolItem<T> item) {
+        int start = stripe * STRIPE_WIDTH;
+        for (int i = start; i < start + SLOTS_PER_STRIPE; i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, item)) return true;
+        }
+        return false;
+    }
+
+    private PoolItem<T> pollFromStripe(int stripe) {
+        int start = stripe * STRIPE_WIDTH;
+        for (int i = start; i < start + SLOTS_PER_STRIPE; i++) {
+            PoolItem<T> item = slots.get(i);
+            if (item != null && slots.compareAndSet(i, item, null)) return item;
+        }
+        return null;
+    }
+
+    // start from given stripe, then steal from other stripes
+    private PoolItem<T> pollFromSlots(int stripe) {
+        for (int i = 0; i <= stripeMask; i++) {
+            PoolItem<T> item = pollFromStripe((stripe + i) & stripeMask);
+            if (item != null) return item;
+        }
+        return null;
+    }
+
+    private int currentStripe() {
+        return (int) Thread.currentThread().getId() & stripeMask;
+    }
+
+    boolean reserveCapacity() {
+        while (true) {
+            int current = total.get();
+            if (current >= maxSize) return false;
+            if (total.compareAndSet(current, current + 1)) return true;
         }
     }
 
     private void recycleItem(PoolItem<T> item) {
         StopWatch watch = new StopWatch();
         int total = this.total.decrementAndGet();
+        metrics.recycle();
         try {
             closeResource(item.resource);
         } finally {
@@ -87,24 +222,50 @@ public final class Pool<T> {
         }
     }
 
-    private PoolItem<T> waitNextAvailableItem() {
+    // if creation is given, check it periodically, and throw its error if failed, rather than wait until timeout
+    private PoolItem<T> waitNextAvailableItem(CompletableFuture<Void> creation) {
         StopWatch watch = new StopWatch();
+        waiters.incrementAndGet();
         try {
-            PoolItem<T> item = idleItems.poll(checkoutTimeoutInMs, TimeUnit.MILLISECONDS);
-            if (item == null) throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
+            PoolItem<T> item = pollIdleItem();
+            long deadline = System.currentTimeMillis() + checkoutTimeoutInMs;
+            while (item == null) {
+                long waitTime = deadline - System.currentTimeMillis();
+                if (waitTime <= 0) {
+                    metrics.timeout();
+                    throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
+                }
+                if (creation != null) waitTime = Math.min(waitTime, CREATION_CHECK_INTERVAL_IN_MS);
+                item = idleQueue.poll(waitTime, TimeUnit.MILLISECONDS);
+                if (item == null && creation != null && creation.isCompletedExceptionally()) throwCreationError(creation);
+            }
             return item;
         } catch (InterruptedException e) {
             throw new Error("interrupted during waiting for next available resource", e);
         } finally {
+            waiters.decrementAndGet();
             logger.debug("wait for next available resource, pool={}, total={}, elapsed={}", name, total.get(), watch.elapsedTime());
         }
     }
 
-    private PoolItem<T> createNewItem() {
+    private void throwCreationError(CompletableFuture<Void> creation) {
+        try {
+            creation.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new Error(cause);
+        }
+    }
+
+    // capacity must be reserved before calling this
+    PoolItem<T> createNewItem() {
         StopWatch watch = new StopWatch();
-        total.incrementAndGet();
         try {
-            return new PoolItem<>(factory.get());
+            PoolItem<T> item = new PoolItem<>(factory.get());
+            metrics.create();
+            return item;
         } catch (Throwable e) {
             total.getAndDecrement();
             throw e;
@@ -120,24 +281,47 @@ public final class Pool<T> {
     }
 
     private void recycleIdleItems() {
-        Iterator<PoolItem<T>> iterator = idleItems.descendingIterator();
-        long maxIdleTimeInSeconds = maxIdleTime.getSeconds();
-        Instant now = Instant.now();
-
-        while (iterator.hasNext()) {
-            PoolItem<T> item = iterator.next();
-            if (Duration.between(Instant.ofEpochMilli(item.returnTime), now).getSeconds() > maxIdleTimeInSeconds) {
-                boolean removed = idleItems.remove(item);
-                if (!removed) return;
-                recycleItem(item);
+        takeIdleItems(maxIdleTime.toMillis(), this::recycleItem);
+    }
+
+    // validate items idle longer than given time, put valid items back without updating return time, so it won't affect max idle time check
+    void validateIdleItems(long minIdleTimeInMs) {
+        if (validator == null) return;
+        takeIdleItems(minIdleTimeInMs, item -> {
+            if (validate(item)) {
+                offerIdleItem(item);
             } else {
-                return;
+                recycleItem(item);
+            }
+        });
+    }
+
+    private boolean validate(PoolItem<T> item) {
+        try {
+            return validator.validate(item.resource);
+        } catch (Exception e) {
+            logger.warn("failed to validate resource, pool={}", name, e);
+            return false;
+        }
+    }
+
+    private void takeIdleItems(long minIdleTimeInMs, Consumer<PoolItem<T>> handler) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < slots.length(); i++) {
+            PoolItem<T> item = slots.get(i);
+            if (item != null && now - item.returnTime > minIdleTimeInMs && slots.compareAndSet(i, item, null)) {   // item may be borrowed by other thread at same time
+                handler.accept(item);
+            }
+        }
+        for (PoolItem<T> item : idleQueue) {
+            if (now - item.returnTime > minIdleTimeInMs && idleQueue.remove(item)) {
+                handler.accept(item);
             }
         }
     }
 
     private void replenish() {
-        while (total.get() < minSize) {
+        while (total.get() < minSize && reserveCapacity()) {
             returnItem(createNewItem());
         }
     }
@@ -151,9 +335,14 @@ public final class Pool<T> {
     }
 
     public void close() {
+        if (maintainer != null) maintainer.stop();
         total.set(maxSize);   // make sure no more new resource will be created
+        for (int i = 0; i < slots.length(); i++) {
+            PoolItem<T> item = slots.getAndSet(i, null);
+            if (item != null) closeResource(item.resource);
+        }
         while (true) {
-            PoolItem<T> item = idleItems.poll();
+            PoolItem<T> item = idleQueue.poll();
             if (item == null) return;
             closeResource(item.resource);
         }
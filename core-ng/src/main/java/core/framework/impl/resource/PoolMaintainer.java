@@ -0,0 +1,90 @@
+package core.framework.impl.resource;
+
+import core.framework.impl.async.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * create resources in parallel and ahead of demand, so request thread doesn't pay connection creation cost,
+ * and validate idle resources off request path
+ *
+ * @author neo
+ */
+final class PoolMaintainer<T> {
+    private static final int CONCURRENCY = 4;
+    private static final long MAINTAIN_INTERVAL_IN_MS = Duration.ofSeconds(1).toMillis();
+    private static final long VALIDATE_INTERVAL_IN_MS = Duration.ofSeconds(30).toMillis();
+
+    private final Logger logger = LoggerFactory.getLogger(PoolMaintainer.class);
+    private final Pool<T> pool;
+    private final int idleHeadroom;
+    private final AtomicInteger creating = new AtomicInteger(0);
+    private final ScheduledExecutorService executor;
+
+    PoolMaintainer(Pool<T> pool, int idleHeadroom) {
+        this.pool = pool;
+        this.idleHeadroom = idleHeadroom;
+        executor = ThreadPools.scheduledThreadPool(CONCURRENCY, "pool-maintainer-" + pool.name() + "-");
+    }
+
+    void start() {
+        logger.info("start pool maintainer, pool={}, idleHeadroom={}", pool.name(), idleHeadroom);
+        maintain();     // warm up
+        executor.scheduleWithFixedDelay(this::maintain, MAINTAIN_INTERVAL_IN_MS, MAINTAIN_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::validate, VALIDATE_INTERVAL_IN_MS, VALIDATE_INTERVAL_IN_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        logger.info("stop pool maintainer, pool={}", pool.name());
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);  // wait in-flight creation done, to close all created resources
+        } catch (InterruptedException e) {
+            logger.warn("interrupted during waiting pool maintainer to stop", e);
+        }
+    }
+
+    // capacity must be reserved before calling this, created item will be returned to pool, and handed over to waiting thread if there is,
+    // returned future completes exceptionally if failed to create, so the waiting thread gets the actual error
+    CompletableFuture<Void> createItem() {
+        CompletableFuture<Void> creation = new CompletableFuture<>();
+        creating.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                pool.returnItem(pool.createNewItem());
+                creation.complete(null);
+            } catch (Throwable e) {
+                logger.warn("failed to create resource, pool={}", pool.name(), e);
+                creation.completeExceptionally(e);
+            } finally {
+                creating.decrementAndGet();
+            }
+        });
+        return creation;
+    }
+
+    void maintain() {
+        try {
+            int shortage = Math.max(pool.minSize() - pool.totalCount(), idleHeadroom - pool.idleCount() - creating.get());
+            for (int i = 0; i < shortage && pool.reserveCapacity(); i++) {
+                createItem();
+            }
+        } catch (Throwable e) {
+            logger.warn("failed to maintain pool, pool={}", pool.name(), e);
+        }
+    }
+
+    private void validate() {
+        try {
+            pool.validateIdleItems(VALIDATE_INTERVAL_IN_MS);
+        } catch (Throwable e) {
+            logger.warn("failed to validate idle resources, pool={}", pool.name(), e);
+        }
+    }
+}
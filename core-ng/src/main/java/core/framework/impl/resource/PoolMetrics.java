@@ -0,0 +1,73 @@
+package core.framework.impl.resource;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * counters are cumulative since pool created, use LongAdder to keep recording cheap under contention
+ *
+ * @author neo
+ */
+public final class PoolMetrics {
+    // upper bound (exclusive) of wait time buckets in ms, the last bucket counts the rest
+    public static final long[] WAIT_TIME_BUCKETS_IN_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder creates = new LongAdder();
+    private final LongAdder recycles = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder[] waitTimes = new LongAdder[WAIT_TIME_BUCKETS_IN_MS.length + 1];
+
+    PoolMetrics() {
+        for (int i = 0; i < waitTimes.length; i++) {
+            waitTimes[i] = new LongAdder();
+        }
+    }
+
+    void checkout(long waitTimeInNanos) {
+        checkouts.increment();
+        waitTimes[bucket(waitTimeInNanos / 1000000)].increment();
+    }
+
+    void create() {
+        creates.increment();
+    }
+
+    void recycle() {
+        recycles.increment();
+    }
+
+    void timeout() {
+        timeouts.increment();
+    }
+
+    private int bucket(long waitTimeInMs) {
+        for (int i = 0; i < WAIT_TIME_BUCKETS_IN_MS.length; i++) {
+            if (waitTimeInMs < WAIT_TIME_BUCKETS_IN_MS[i]) return i;
+        }
+        return WAIT_TIME_BUCKETS_IN_MS.length;
+    }
+
+    public long checkouts() {
+        return checkouts.sum();
+    }
+
+    public long creates() {
+        return creates.sum();
+    }
+
+    public long recycles() {
+        return recycles.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long[] waitTimeHistogram() {
+        long[] histogram = new long[waitTimes.length];
+        for (int i = 0; i < waitTimes.length; i++) {
+            histogram[i] = waitTimes[i].sum();
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,9 @@
+package core.framework.impl.resource;
+
+/**
+ * @author neo
+ */
+@FunctionalInterface
+public interface ResourceValidator<T> {
+    boolean validate(T resource) throws Exception;
+}
@@ -53,6 +53,9 @@ public class CacheController {
         view.name = cache.name;
         view.type = cache.valueType.getTypeName();
         view.duration = (int) cache.duration.getSeconds();
+        view.hits = cache.hits();
+        view.misses = cache.misses();
+        view.evictions = cache.evictions();
         return view;
     }
 }
@@ -15,4 +15,10 @@ public class CacheView {
     public String type;
     @XmlElement(name = "duration")
     public Integer duration;
+    @XmlElement(name = "hits")
+    public Long hits;
+    @XmlElement(name = "misses")
+    public Long misses;
+    @XmlElement(name = "evictions")
+    public Long evictions;
 }
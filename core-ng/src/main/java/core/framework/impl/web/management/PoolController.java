@@ -0,0 +1,58 @@
+package core.framework.impl.web.management;
+
+import core.framework.api.util.Maps;
+import core.framework.api.web.Request;
+import core.framework.api.web.Response;
+import core.framework.impl.resource.Pool;
+import core.framework.impl.resource.PoolMetrics;
+
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author neo
+ */
+public class PoolController {
+    private final List<Pool<?>> pools;
+
+    public PoolController(List<Pool<?>> pools) {
+        this.pools = pools;
+    }
+
+    public Response list(Request request) throws UnknownHostException {
+        ControllerHelper.validateFromLocalNetwork(request.clientIP());
+        List<PoolView> views = pools.stream().map(this::view).collect(Collectors.toList());
+        return Response.bean(views);
+    }
+
+    private PoolView view(Pool<?> pool) {
+        PoolView view = new PoolView();
+        view.name = pool.name();
+        view.minSize = pool.minSize();
+        view.maxSize = pool.maxSize();
+        int total = pool.totalCount();
+        int idle = pool.idleCount();
+        view.total = total;
+        view.idle = idle;
+        view.active = Math.max(total - idle, 0);
+        PoolMetrics metrics = pool.metrics;
+        view.checkouts = metrics.checkouts();
+        view.creates = metrics.creates();
+        view.recycles = metrics.recycles();
+        view.timeouts = metrics.timeouts();
+        view.waitTimeHistogram = waitTimeHistogram(metrics.waitTimeHistogram());
+        return view;
+    }
+
+    private Map<String, Long> waitTimeHistogram(long[] histogram) {
+        Map<String, Long> view = Maps.newLinkedHashMap();
+        long[] buckets = PoolMetrics.WAIT_TIME_BUCKETS_IN_MS;
+        for (int i = 0; i < buckets.length; i++) {
+            view.put("<" + buckets[i] + "ms", histogram[i]);
+        }
+        view.put(">=" + buckets[buckets.length - 1] + "ms", histogram[buckets.length]);
+        return view;
+    }
+}
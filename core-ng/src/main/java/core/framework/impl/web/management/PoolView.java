@@ -0,0 +1,35 @@
+package core.framework.impl.web.management;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class PoolView {
+    @XmlElement(name = "name")
+    public String name;
+    @XmlElement(name = "min_size")
+    public Integer minSize;
+    @XmlElement(name = "max_size")
+    public Integer maxSize;
+    @XmlElement(name = "total")
+    public Integer total;
+    @XmlElement(name = "active")
+    public Integer active;
+    @XmlElement(name = "idle")
+    public Integer idle;
+    @XmlElement(name = "checkouts")
+    public Long checkouts;
+    @XmlElement(name = "creates")
+    public Long creates;
+    @XmlElement(name = "recycles")
+    public Long recycles;
+    @XmlElement(name = "timeouts")
+    public Long timeouts;
+    @XmlElement(name = "wait_time_histogram")
+    public Map<String, Long> waitTimeHistogram;
+}
@@ -0,0 +1,48 @@
+package core.framework.impl.web.management;
+
+import core.framework.api.module.MessageHandlerConfig;
+import core.framework.api.util.Maps;
+import core.framework.api.web.Request;
+import core.framework.api.web.Response;
+import core.framework.impl.queue.MessageTypeStat;
+import core.framework.impl.queue.RabbitMQListener;
+
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * @author neo
+ */
+public class QueueController {
+    private final Map<String, MessageHandlerConfig> listeners;
+
+    public QueueController(Map<String, MessageHandlerConfig> listeners) {
+        this.listeners = listeners;
+    }
+
+    public Response list(Request request) throws UnknownHostException {
+        ControllerHelper.validateFromLocalNetwork(request.clientIP());
+        return Response.bean(listeners.values().stream().map(listener -> view((RabbitMQListener) listener)).collect(Collectors.toList()));
+    }
+
+    private QueueListenerView view(RabbitMQListener listener) {
+        QueueListenerView view = new QueueListenerView();
+        view.queue = listener.queue();
+        view.minPoolSize = listener.minPoolSize();
+        view.maxPoolSize = listener.maxPoolSize();
+        view.concurrency = listener.concurrency();
+        view.inFlight = listener.inFlight();
+        view.prefetch = listener.prefetch();
+        view.messageTypes = Maps.newLinkedHashMap();
+        for (Map.Entry<String, MessageTypeStat> entry : listener.messageTypeStats().entrySet()) {
+            MessageTypeStat stat = entry.getValue();
+            QueueListenerView.MessageTypeView messageTypeView = new QueueListenerView.MessageTypeView();
+            messageTypeView.count = stat.count();
+            messageTypeView.averageElapsed = stat.averageElapsed();
+            messageTypeView.maxElapsed = stat.maxElapsed();
+            view.messageTypes.put(entry.getKey(), messageTypeView);
+        }
+        return view;
+    }
+}
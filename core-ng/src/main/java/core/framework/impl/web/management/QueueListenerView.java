@@ -0,0 +1,37 @@
+package core.framework.impl.web.management;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class QueueListenerView {
+    @XmlElement(name = "queue")
+    public String queue;
+    @XmlElement(name = "min_pool_size")
+    public Integer minPoolSize;
+    @XmlElement(name = "max_pool_size")
+    public Integer maxPoolSize;
+    @XmlElement(name = "concurrency")
+    public Integer concurrency;
+    @XmlElement(name = "in_flight")
+    public Integer inFlight;
+    @XmlElement(name = "prefetch")
+    public Integer prefetch;
+    @XmlElement(name = "message_types")
+    public Map<String, MessageTypeView> messageTypes;
+
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class MessageTypeView {
+        @XmlElement(name = "count")
+        public Long count;
+        @XmlElement(name = "average_elapsed")
+        public Long averageElapsed;
+        @XmlElement(name = "max_elapsed")
+        public Long maxElapsed;
+    }
+}
@@ -1,9 +1,11 @@
 package core.framework.impl.web.session;
 
 import core.framework.api.redis.Redis;
+import core.framework.api.redis.RedisPipeline;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * @author neo
@@ -18,18 +20,23 @@ public class RedisSessionStore implements SessionStore {
     @Override
     public Map<String, String> getAndRefresh(String sessionId, Duration sessionTimeout) {
         String key = sessionKey(sessionId);
-        Map<String, String> data = redis.hgetAll(key);
-        if (data.isEmpty()) return null;
-
-        redis.expire(key, Duration.ofSeconds(sessionTimeout.getSeconds()));
-        return data;
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<Map<String, String>> data = pipeline.hgetAll(key);
+        pipeline.expire(key, Duration.ofSeconds(sessionTimeout.getSeconds()));    // expire does nothing if session not exists
+        pipeline.execute();
+
+        Map<String, String> values = data.get();
+        if (values.isEmpty()) return null;
+        return values;
     }
 
     @Override
     public void save(String sessionId, Map<String, String> sessionData, Duration sessionTimeout) {
         String key = sessionKey(sessionId);
-        redis.hmset(key, sessionData);
-        redis.expire(key, Duration.ofSeconds(sessionTimeout.getSeconds()));
+        RedisPipeline pipeline = redis.pipeline();
+        pipeline.hmset(key, sessionData);
+        pipeline.expire(key, Duration.ofSeconds(sessionTimeout.getSeconds()));
+        pipeline.execute();
     }
 
     @Override
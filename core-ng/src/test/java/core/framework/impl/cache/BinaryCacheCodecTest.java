@@ -0,0 +1,154 @@
+package core.framework.impl.cache;
+
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.api.util.Strings;
+import core.framework.api.util.Types;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class BinaryCacheCodecTest {
+    private BinaryCacheCodec<TestCacheValue> codec;
+
+    @Before
+    public void createCodec() {
+        codec = new BinaryCacheCodec<>(TestCacheValue.class, 0);
+    }
+
+    @Test
+    public void encodeAndDecode() {
+        TestCacheValue value = value();
+
+        byte[] bytes = codec.encode(value);
+        TestCacheValue decodedValue = codec.decode(bytes, 0, bytes.length);
+
+        assertEquals(value.stringField, decodedValue.stringField);
+        assertEquals(value.intField, decodedValue.intField);
+        assertEquals(value.longField, decodedValue.longField);
+        assertEquals(value.doubleField, decodedValue.doubleField);
+        assertEquals(value.booleanField, decodedValue.booleanField);
+        assertEquals(value.bigDecimalField, decodedValue.bigDecimalField);
+        assertEquals(value.dateField, decodedValue.dateField);
+        assertEquals(value.dateTimeField, decodedValue.dateTimeField);
+        assertEquals(value.instantField, decodedValue.instantField);
+        assertEquals(value.enumField, decodedValue.enumField);
+        assertEquals(value.listField, decodedValue.listField);
+        assertEquals(value.mapField, decodedValue.mapField);
+        assertEquals(value.child.name, decodedValue.child.name);
+        assertEquals(value.child.quantity, decodedValue.child.quantity);
+        assertEquals(2, decodedValue.children.size());
+        assertNull(decodedValue.children.get(1));
+    }
+
+    @Test
+    public void encodeAndDecodeNullFields() {
+        byte[] bytes = codec.encode(new TestCacheValue());
+        TestCacheValue decodedValue = codec.decode(bytes, 0, bytes.length);
+
+        assertNull(decodedValue.stringField);
+        assertNull(decodedValue.intField);
+        assertNull(decodedValue.booleanField);
+        assertNull(decodedValue.enumField);
+        assertNull(decodedValue.listField);
+        assertNull(decodedValue.child);
+    }
+
+    @Test
+    public void encodeAndDecodeWithOffset() {
+        byte[] bytes = codec.encode(value());
+        byte[] paddedBytes = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, paddedBytes, 3, bytes.length);
+
+        TestCacheValue decodedValue = codec.decode(paddedBytes, 3, bytes.length);
+        assertEquals("value", decodedValue.stringField);
+    }
+
+    @Test
+    public void compress() {
+        BinaryCacheCodec<TestCacheValue> codec = new BinaryCacheCodec<>(TestCacheValue.class, 64);
+        TestCacheValue value = value();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("value");
+        }
+        value.stringField = builder.toString();
+
+        byte[] bytes = codec.encode(value);
+        assertTrue(bytes.length < this.codec.encode(value).length);
+
+        TestCacheValue decodedValue = codec.decode(bytes, 0, bytes.length);
+        assertEquals(value.stringField, decodedValue.stringField);
+        assertEquals(value.mapField, decodedValue.mapField);
+    }
+
+    @Test
+    public void encodeAndDecodeList() {
+        BinaryCacheCodec<List<TestCacheChild>> codec = new BinaryCacheCodec<>(Types.list(TestCacheChild.class), 0);
+        TestCacheChild child = new TestCacheChild();
+        child.name = "child";
+
+        byte[] bytes = codec.encode(Lists.newArrayList(child));
+        List<TestCacheChild> decodedValue = codec.decode(bytes, 0, bytes.length);
+        assertEquals(1, decodedValue.size());
+        assertEquals("child", decodedValue.get(0).name);
+    }
+
+    @Test
+    public void decodeWithDifferentFingerprint() {
+        BinaryCacheCodec<TestCacheChild> childCodec = new BinaryCacheCodec<>(TestCacheChild.class, 0);
+        byte[] bytes = childCodec.encode(new TestCacheChild());
+
+        assertNull(codec.decode(bytes, 0, bytes.length));
+    }
+
+    @Test
+    public void decodeJSON() {
+        byte[] bytes = Strings.bytes("{\"string_field\":\"value\"}");
+
+        TestCacheValue decodedValue = codec.decode(bytes, 0, bytes.length);
+        assertEquals("value", decodedValue.stringField);
+    }
+
+    @Test
+    public void fingerprint() {
+        assertEquals(BinaryCacheCodec.fingerprint(TestCacheValue.class), BinaryCacheCodec.fingerprint(TestCacheValue.class));
+        assertNotEquals(BinaryCacheCodec.fingerprint(TestCacheValue.class), BinaryCacheCodec.fingerprint(TestCacheChild.class));
+    }
+
+    private TestCacheValue value() {
+        TestCacheValue value = new TestCacheValue();
+        value.stringField = "value";
+        value.intField = -1;
+        value.longField = Long.MAX_VALUE;
+        value.doubleField = 1.5;
+        value.booleanField = Boolean.FALSE;
+        value.bigDecimalField = new BigDecimal("12.30");
+        value.dateField = LocalDate.of(2016, 1, 15);
+        value.dateTimeField = LocalDateTime.of(2016, 1, 15, 12, 30, 15, 100);
+        value.instantField = Instant.ofEpochSecond(1452861015, 123);
+        value.enumField = TestCacheValue.TestEnum.ITEM2;
+        value.listField = Lists.newArrayList("a", "b");
+        value.mapField = Maps.newLinkedHashMap();
+        value.mapField.put("key1", 1);
+        value.mapField.put("key2", Integer.MIN_VALUE);
+        value.child = new TestCacheChild();
+        value.child.name = "child";
+        value.child.quantity = 10;
+        value.children = Lists.newArrayList(value.child, null);
+        return value;
+    }
+}
@@ -1,19 +1,28 @@
 package core.framework.impl.cache;
 
+import core.framework.api.util.Lists;
 import core.framework.api.util.Maps;
 import core.framework.api.util.Strings;
+import core.framework.api.util.Types;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,5 +81,221 @@ public class CacheImplTest {
         ArgumentCaptor<Map> argument = ArgumentCaptor.forClass(Map.class);
         verify(cacheStore).putAll(argument.capture(), eq(Duration.ofHours(1)));
         assertArrayEquals(Strings.bytes("2"), (byte[]) argument.getValue().get("name:key2"));
+
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void getWithNearCache() {
+        cache.nearCache = new NearCache(Duration.ofMinutes(1), 100);
+        when(cacheStore.get("name:key")).thenReturn(Strings.bytes("1"));
+
+        assertEquals(1, (int) cache.get("key", key -> null));
+        assertEquals(1, (int) cache.get("key", key -> null));
+
+        verify(cacheStore, times(1)).get("name:key");
+    }
+
+    @Test
+    public void getAllWithNearCache() {
+        cache.nearCache = new NearCache(Duration.ofMinutes(1), 100);
+        cache.nearCache.put("name:key1", 1);
+        Map<String, byte[]> values = Maps.newHashMap();
+        values.put("name:key2", Strings.bytes("2"));
+        when(cacheStore.getAll(new String[]{"name:key2"})).thenReturn(values);
+
+        Map<String, Integer> results = cache.getAll(Arrays.asList("key1", "key2"), key -> null);
+        assertEquals(1, results.get("key1").intValue());
+        assertEquals(2, results.get("key2").intValue());
+        assertEquals(2, cache.nearCache.get("name:key2"));
+    }
+
+    @Test
+    public void evictWithNearCache() {
+        cache.nearCache = new NearCache(Duration.ofMinutes(1), 100);
+        cache.nearCache.put("name:key", 1);
+
+        cache.evict("key");
+
+        verify(cacheStore).delete("name:key");
+        assertNull(cache.nearCache.get("name:key"));
+    }
+
+    @Test
+    public void getWithObjectMode() {
+        LocalCacheStore localCacheStore = new LocalCacheStore(1000);
+        CacheImpl<Integer> cache = new CacheImpl<>("name", Integer.class, Duration.ofHours(1), localCacheStore);
+        cache.objectStore = localCacheStore;
+
+        assertEquals(1, (int) cache.get("key", key -> 1));
+        assertEquals(1, (int) cache.get("key", key -> null));
+        assertEquals(1, ((CacheImpl.Entry<?>) localCacheStore.getObject("name:key")).value);
+        assertEquals(1, localCacheStore.size());     // weighed by json size
+        assertEquals("1", cache.get("key").get());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void putWithObjectModeAndCopier() {
+        LocalCacheStore localCacheStore = new LocalCacheStore(1000);
+        CacheImpl<List<String>> cache = new CacheImpl<>("name", Types.list(String.class), Duration.ofHours(1), localCacheStore);
+        cache.objectStore = localCacheStore;
+        cache.copier = ArrayList::new;
+
+        List<String> value = Lists.newArrayList("1");
+        cache.put("key", value);
+        value.add("2");
+        List<String> cachedValue = cache.get("key", key -> null);
+        cachedValue.add("3");
+
+        assertEquals(Lists.newArrayList("1"), cache.getAll(Arrays.asList("key"), key -> null).get("key"));
+    }
+
+    @Test
+    public void getWithSingleFlight() throws InterruptedException {
+        LocalCacheStore localCacheStore = new LocalCacheStore(1000);
+        CacheImpl<Integer> cache = new CacheImpl<>("name", Integer.class, Duration.ofHours(1), localCacheStore);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Thread thread = new Thread(() -> cache.get("key", key -> {
+            loading.countDown();
+            await(waiting);
+            return loads.incrementAndGet();
+        }));
+        thread.start();
+        loading.await();
+
+        Thread follower = new Thread(() -> assertEquals(1, (int) cache.get("key", key -> loads.incrementAndGet())));
+        follower.start();
+        Thread.sleep(50);
+        waiting.countDown();
+        thread.join();
+        follower.join();
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void getAllWithSingleFlight() throws InterruptedException {
+        LocalCacheStore localCacheStore = new LocalCacheStore(1000);
+        CacheImpl<Integer> cache = new CacheImpl<>("name", Integer.class, Duration.ofHours(1), localCacheStore);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Thread thread = new Thread(() -> cache.get("key1", key -> {
+            loading.countDown();
+            await(waiting);
+            loads.incrementAndGet();
+            return 1;
+        }));
+        thread.start();
+        loading.await();
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            waiting.countDown();
+        }).start();
+        Map<String, Integer> results = cache.getAll(Arrays.asList("key1", "key2"), key -> {
+            loads.incrementAndGet();
+            return 2;
+        });
+        thread.join();
+
+        assertEquals(1, results.get("key1").intValue());
+        assertEquals(2, results.get("key2").intValue());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getStaleWhileRevalidate() {
+        cache.staleWhileRevalidate(Duration.ofHours(1));
+        cache.refreshExecutor = Runnable::run;
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+
+        cache.put("key", 1);
+        verify(cacheStore).put(eq("name:t:key"), value.capture(), eq(Duration.ofHours(2)));
+
+        byte[] staleValue = value.getValue();
+        writeLong(staleValue, 1, 1);    // set write time and expiration time to 1970-01-01
+        writeLong(staleValue, 9, 2);
+        when(cacheStore.get("name:t:key")).thenReturn(staleValue);
+
+        assertEquals(1, (int) cache.get("key", key -> 2));
+        verify(cacheStore, times(2)).put(eq("name:t:key"), value.capture(), eq(Duration.ofHours(2)));
+        when(cacheStore.get("name:t:key")).thenReturn(value.getValue());
+        assertEquals(2, (int) cache.get("key", key -> 3));
+    }
+
+    @Test
+    public void getRefreshAhead() {
+        cache.refreshAhead(0.5);
+        cache.refreshExecutor = Runnable::run;
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+
+        cache.put("key", 1);
+        verify(cacheStore).put(eq("name:t:key"), value.capture(), eq(Duration.ofHours(1)));
+        when(cacheStore.get("name:t:key")).thenReturn(value.getValue());
+        assertEquals(1, (int) cache.get("key", key -> 2));
+        verify(cacheStore, times(1)).put(eq("name:t:key"), value.capture(), eq(Duration.ofHours(1)));     // not in refresh window
+
+        byte[] expiringValue = value.getValue();
+        long now = System.currentTimeMillis();
+        writeLong(expiringValue, 1, now - Duration.ofHours(1).toMillis());
+        writeLong(expiringValue, 9, now + 10);
+        when(cacheStore.get("name:t:key")).thenReturn(expiringValue);
+
+        assertEquals(1, (int) cache.get("key", key -> 2));
+        verify(cacheStore, times(2)).put(eq("name:t:key"), value.capture(), eq(Duration.ofHours(1)));
+    }
+
+    @Test
+    public void putWithDurationJitter() {
+        cache.durationJitter(0.1);
+        ArgumentCaptor<Duration> expiration = ArgumentCaptor.forClass(Duration.class);
+
+        cache.put("key", 1);
+
+        verify(cacheStore).put(eq("name:key"), eq(Strings.bytes("1")), expiration.capture());
+        assertTrue(expiration.getValue().compareTo(Duration.ofHours(1)) <= 0);
+        assertTrue(expiration.getValue().compareTo(Duration.ofMinutes(54)) >= 0);
+    }
+
+    @Test
+    public void getWithBinaryCodec() {
+        cache.binaryCodec(0);
+        ArgumentCaptor<byte[]> bytes = ArgumentCaptor.forClass(byte[].class);
+        cache.put("key", 1);
+        verify(cacheStore).put(eq("name:key"), bytes.capture(), eq(Duration.ofHours(1)));
+
+        when(cacheStore.get("name:key")).thenReturn(bytes.getValue());
+        assertEquals(1, (int) cache.get("key", key -> null));
+
+        when(cacheStore.get("name:key")).thenReturn(Strings.bytes("2"));
+        assertEquals(2, (int) cache.get("key", key -> null));
+
+        bytes.getValue()[1]++;  // value written by different value class
+        when(cacheStore.get("name:key")).thenReturn(bytes.getValue());
+        assertEquals(3, (int) cache.get("key", key -> 3));
+    }
+
+    private void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + 7 - i] = (byte) (value >>> (i * 8));
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -3,8 +3,11 @@ package core.framework.impl.cache;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 /**
@@ -15,7 +18,7 @@ public class LocalCacheStoreTest {
 
     @Before
     public void createLocalCacheStore() {
-        cacheStore = new LocalCacheStore();
+        cacheStore = new LocalCacheStore(100);
     }
 
     @Test
@@ -24,4 +27,76 @@ public class LocalCacheStoreTest {
         assertNull(values.get("key1"));
         assertNull(values.get("key2"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void put() {
+        cacheStore.put("name:key", new byte[10], Duration.ofMinutes(1));
+        cacheStore.put("name:key", new byte[20], Duration.ofMinutes(1));
+
+        assertEquals(20, cacheStore.get("name:key").length);
+        assertEquals(20, cacheStore.size());
+    }
+
+    @Test
+    public void delete() {
+        cacheStore.put("name:key", new byte[10], Duration.ofMinutes(1));
+        cacheStore.delete("name:key");
+
+        assertNull(cacheStore.get("name:key"));
+        assertEquals(0, cacheStore.size());
+    }
+
+    @Test
+    public void getExpired() {
+        cacheStore.put("name:key", new byte[10], Duration.ZERO);
+
+        assertNull(cacheStore.get("name:key"));
+        assertEquals(0, cacheStore.size());
+    }
+
+    @Test
+    public void cleanup() {
+        cacheStore.put("name:key1", new byte[10], Duration.ZERO);
+        cacheStore.put("name:key2", new byte[10], Duration.ofMinutes(1));
+        cacheStore.cleanup();
+
+        assertEquals(10, cacheStore.size());
+        assertNotNull(cacheStore.get("name:key2"));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        for (int i = 0; i < 5; i++) {
+            cacheStore.put("name:key" + i, new byte[30], Duration.ofMinutes(1));
+        }
+
+        assertEquals(90, cacheStore.size());
+        assertNull(cacheStore.get("name:key0"));
+        assertNull(cacheStore.get("name:key1"));
+        assertNotNull(cacheStore.get("name:key4"));
+        assertEquals(2, cacheStore.evictions("name"));
+        assertEquals(0, cacheStore.evictions("other"));
+    }
+
+    @Test
+    public void keepFrequentlyUsedOnBurst() {
+        cacheStore.put("name:hot", new byte[30], Duration.ofMinutes(1));
+        cacheStore.get("name:hot");     // promote to protected segment
+
+        for (int i = 0; i < 10; i++) {
+            cacheStore.put("burst:key" + i, new byte[30], Duration.ofMinutes(1));
+        }
+
+        assertNotNull(cacheStore.get("name:hot"));
+        assertEquals(0, cacheStore.evictions("name"));
+        assertEquals(8, cacheStore.evictions("burst"));
+    }
+
+    @Test
+    public void putLargerThanMaxSize() {
+        cacheStore.put("name:key", new byte[200], Duration.ofMinutes(1));
+
+        assertNull(cacheStore.get("name:key"));
+        assertEquals(0, cacheStore.size());
+    }
+}
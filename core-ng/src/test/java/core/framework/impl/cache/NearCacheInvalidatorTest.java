@@ -0,0 +1,28 @@
+package core.framework.impl.cache;
+
+import core.framework.impl.redis.ShardedRedisImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author neo
+ */
+public class NearCacheInvalidatorTest {
+    private NearCacheInvalidator invalidator;
+
+    @Before
+    public void createNearCacheInvalidator() {
+        invalidator = new NearCacheInvalidator(new ShardedRedisImpl("redis"), new NearCache(Duration.ofMinutes(1), 10));
+    }
+
+    @Test
+    public void cacheKey() {
+        assertEquals("name:key", invalidator.cacheKey("another-node:name:key"));
+        assertNull(invalidator.cacheKey("invalid"));
+    }
+}
@@ -0,0 +1,41 @@
+package core.framework.impl.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class NearCacheTest {
+    @Test
+    public void get() {
+        NearCache nearCache = new NearCache(Duration.ofMinutes(1), 10);
+        nearCache.put("key", "value");
+
+        assertEquals("value", nearCache.get("key"));
+        assertNull(nearCache.get("notExistedKey"));
+    }
+
+    @Test
+    public void getExpired() {
+        NearCache nearCache = new NearCache(Duration.ZERO, 10);
+        nearCache.put("key", "value");
+
+        assertNull(nearCache.get("key"));
+    }
+
+    @Test
+    public void evictWhenFull() {
+        NearCache nearCache = new NearCache(Duration.ofMinutes(1), 10);
+        for (int i = 0; i < 20; i++) {
+            nearCache.put("key" + i, i);
+        }
+
+        assertTrue(nearCache.size() <= 10);
+    }
+}
@@ -0,0 +1,17 @@
+package core.framework.impl.cache;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class TestCacheChild {
+    @XmlElement(name = "name")
+    public String name;
+
+    @XmlElement(name = "quantity")
+    public Integer quantity;
+}
@@ -0,0 +1,64 @@
+package core.framework.impl.cache;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class TestCacheValue {
+    @XmlElement(name = "string_field")
+    public String stringField;
+
+    @XmlElement(name = "int_field")
+    public Integer intField;
+
+    @XmlElement(name = "long_field")
+    public Long longField;
+
+    @XmlElement(name = "double_field")
+    public Double doubleField;
+
+    @XmlElement(name = "boolean_field")
+    public Boolean booleanField;
+
+    @XmlElement(name = "big_decimal_field")
+    public BigDecimal bigDecimalField;
+
+    @XmlElement(name = "date_field")
+    public LocalDate dateField;
+
+    @XmlElement(name = "date_time_field")
+    public LocalDateTime dateTimeField;
+
+    @XmlElement(name = "instant_field")
+    public Instant instantField;
+
+    @XmlElement(name = "enum_field")
+    public TestEnum enumField;
+
+    @XmlElement(name = "list_field")
+    public List<String> listField;
+
+    @XmlElement(name = "map_field")
+    public Map<String, Integer> mapField;
+
+    @XmlElement(name = "child")
+    public TestCacheChild child;
+
+    @XmlElement(name = "children")
+    public List<TestCacheChild> children;
+
+    public enum TestEnum {
+        ITEM1,
+        ITEM2
+    }
+}
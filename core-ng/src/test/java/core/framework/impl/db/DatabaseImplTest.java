@@ -1,6 +1,9 @@
 package core.framework.impl.db;
 
+import core.framework.api.db.ReadFromPrimary;
 import core.framework.api.db.Transaction;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
@@ -8,6 +11,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -57,6 +61,35 @@ public class DatabaseImplTest {
         Assert.assertEquals(TestEnum.V2, views.get(1).enumField);
     }
 
+    @Test
+    public void forEachWithView() {
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 1, "string1", TestEnum.V1);
+        database.execute("INSERT INTO database_test VALUES (?, ?, ?)", 2, "string2", TestEnum.V2);
+
+        List<EntityView> views = Lists.newArrayList();
+        database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test ORDER BY id", EntityView.class, views::add);
+
+        Assert.assertEquals(2, views.size());
+        Assert.assertEquals("string1", views.get(0).stringField);
+        Assert.assertEquals(TestEnum.V2, views.get(1).enumField);
+    }
+
+    @Test
+    public void forEachWithinTransactionWithStreaming() {
+        int fetchSize = database.operation.streamingFetchSize;
+        database.operation.streamingFetchSize = Integer.MIN_VALUE;  // simulate mysql
+        try (Transaction transaction = database.beginTransaction()) {
+            database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test", EntityView.class, view -> {
+            });
+            transaction.commit();
+            Assert.fail("forEach within transaction should fail");
+        } catch (Error e) {
+            Assert.assertTrue(e.getMessage().contains("forEach within transaction is not supported"));
+        } finally {
+            database.operation.streamingFetchSize = fetchSize;
+        }
+    }
+
     @Test
     public void selectEmptyWithView() {
         List<EntityView> views = database.select("SELECT string_field, enum_field FROM database_test where id = -1", EntityView.class);
@@ -76,6 +109,21 @@ public class DatabaseImplTest {
         Assert.assertEquals(0, result.get().intValue());
     }
 
+    @Test
+    public void statementCacheMetrics() {
+        Map<String, Double> stats = Maps.newHashMap();
+        database.operation.statementCacheMetrics.collect(stats);    // reset counters of other tests
+
+        String sql = "SELECT count(id) FROM database_test WHERE id > ? AND string_field IS NOT NULL";
+        database.selectOne(sql, Integer.class, 0);
+        database.selectOne(sql, Integer.class, 0);
+
+        stats.clear();
+        database.operation.statementCacheMetrics.collect(stats);
+        Assert.assertEquals(1, stats.get("statement_cache_db_miss"), 0);
+        Assert.assertEquals(1, stats.get("statement_cache_db_hit"), 0);
+    }
+
     @Test
     public void commitTransaction() {
         try (Transaction transaction = database.beginTransaction()) {
@@ -97,4 +145,43 @@ public class DatabaseImplTest {
         Optional<EntityView> result = database.selectOne("SELECT string_field, enum_field FROM database_test where id = ?", EntityView.class, 1);
         Assert.assertFalse(result.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("try")    // read from primary scopes are not referenced in try body, the scope itself is what's tested
+    public void selectFromReplica() {
+        DatabaseImpl replica = new DatabaseImpl();
+        replica.url("jdbc:hsqldb:mem:replica;sql.syntax_mys=true");
+        replica.execute("CREATE TABLE replica_test (id INT PRIMARY KEY, string_field VARCHAR(20))");
+        replica.execute("INSERT INTO replica_test VALUES (?, ?)", 1, "replica");
+
+        DatabaseImpl primary = new DatabaseImpl();
+        primary.url("jdbc:hsqldb:mem:primary;sql.syntax_mys=true");
+        primary.replicas("jdbc:hsqldb:mem:replica;sql.syntax_mys=true");
+        primary.execute("CREATE TABLE replica_test (id INT PRIMARY KEY, string_field VARCHAR(20))");
+        primary.execute("INSERT INTO replica_test VALUES (?, ?)", 1, "primary");
+
+        String sql = "SELECT string_field FROM replica_test WHERE id = ?";
+        try {
+            Assert.assertEquals("replica", primary.selectOne(sql, String.class, 1).get());
+            Assert.assertEquals("replica", primary.select(sql, String.class, 1).get(0));
+
+            try (ReadFromPrimary ignored = primary.readFromPrimary()) {
+                try (ReadFromPrimary nested = primary.readFromPrimary()) {
+                    Assert.assertEquals("primary", primary.selectOne(sql, String.class, 1).get());
+                }
+                Assert.assertEquals("primary", primary.selectOne(sql, String.class, 1).get());
+            }
+            Assert.assertEquals("replica", primary.selectOne(sql, String.class, 1).get());
+
+            try (Transaction transaction = primary.beginTransaction()) {
+                Assert.assertEquals("primary", primary.selectOne(sql, String.class, 1).get());
+                transaction.commit();
+            }
+        } finally {
+            primary.execute("DROP TABLE replica_test");
+            replica.execute("DROP TABLE replica_test");
+            primary.close();
+            replica.close();
+        }
+    }
+}
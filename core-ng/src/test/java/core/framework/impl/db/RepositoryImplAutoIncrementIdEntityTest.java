@@ -2,6 +2,7 @@ package core.framework.impl.db;
 
 import core.framework.api.db.Query;
 import core.framework.api.db.Repository;
+import core.framework.api.util.Lists;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.Before;
@@ -108,4 +109,54 @@ public class RepositoryImplAutoIncrementIdEntityTest {
         Assert.assertEquals(entity1.enumField, entities.get(0).enumField);
         Assert.assertEquals(entity1.stringField, entities.get(0).stringField);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void forEach() {
+        for (int i = 0; i < 3; i++) {
+            AutoIncrementIdEntity entity = new AutoIncrementIdEntity();
+            entity.stringField = "string" + i;
+            entity.enumField = i == 0 ? TestEnum.V1 : TestEnum.V2;
+            repository.insert(entity);
+        }
+
+        Query query = new Query();
+        query.where = "enum_field = ?";
+        query.params = new Object[]{TestEnum.V2};
+        List<String> values = Lists.newArrayList();
+        repository.forEach(query, entity -> values.add(entity.stringField));
+
+        Assert.assertEquals(2, values.size());
+        Assert.assertTrue(values.contains("string1"));
+        Assert.assertTrue(values.contains("string2"));
+    }
+
+    @Test
+    public void batchInsertInChunks() {
+        database.batchMaxRows = 2;
+        try {
+            List<AutoIncrementIdEntity> entities = Lists.newArrayList();
+            for (int i = 0; i < 5; i++) {
+                AutoIncrementIdEntity entity = new AutoIncrementIdEntity();
+                entity.stringField = "string" + i;
+                entities.add(entity);
+            }
+
+            int cachedStatements = database.operation.cachedStatementCount();
+            List<Long> ids = repository.batchInsert(entities);
+            Assert.assertEquals("multi-row sql should not be cached", cachedStatements, database.operation.cachedStatementCount());
+
+            Assert.assertEquals(5, ids.size());
+            for (int i = 0; i < 5; i++) {
+                AutoIncrementIdEntity selectedEntity = repository.get(ids.get(i)).get();
+                Assert.assertEquals("string" + i, selectedEntity.stringField);
+            }
+
+            cachedStatements = database.operation.cachedStatementCount();
+            repository.batchDelete(ids);
+            Assert.assertEquals(cachedStatements, database.operation.cachedStatementCount());
+            Assert.assertTrue(repository.select(new Query()).isEmpty());
+        } finally {
+            database.batchMaxRows = 1000;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package core.framework.impl.db;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+public class StatementCacheTest {
+    private StatementCache cache;
+
+    @Before
+    public void createStatementCache() {
+        cache = new StatementCache(2);
+    }
+
+    @Test
+    public void get() {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        cache.put("sql", false, statement);
+
+        assertSame(statement, cache.get("sql", false));
+        assertNull(cache.get("other_sql", false));
+    }
+
+    @Test
+    public void getWithDifferentGeneratedKeysFlag() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        cache.put("sql", false, statement);
+
+        assertNull(cache.get("sql", true));
+        verify(statement).close();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws SQLException {
+        PreparedStatement statement1 = mock(PreparedStatement.class);
+        PreparedStatement statement2 = mock(PreparedStatement.class);
+        PreparedStatement statement3 = mock(PreparedStatement.class);
+        cache.put("sql1", false, statement1);
+        cache.put("sql2", false, statement2);
+        cache.get("sql1", false);
+        cache.put("sql3", false, statement3);
+
+        assertEquals(2, cache.size());
+        verify(statement2).close();
+        verify(statement1, never()).close();
+        assertNull(cache.get("sql2", false));
+    }
+
+    @Test
+    public void remove() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        cache.put("sql", false, statement);
+        cache.remove("sql");
+
+        verify(statement).close();
+        assertNull(cache.get("sql", false));
+    }
+}
@@ -0,0 +1,71 @@
+package core.framework.impl.log;
+
+import core.framework.api.util.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author neo
+ */
+public class AsyncLogWriterTest {
+    @Test
+    public void dropWhenFull() {
+        List<Integer> logs = Lists.newArrayList();
+        AsyncLogWriter<Integer> writer = new AsyncLogWriter<>("test-writer", 4, false, logs::add, () -> {
+        }, System.err);
+        for (int i = 0; i < 6; i++) {
+            writer.add(i);      // writer thread is not started, so queue will be full
+        }
+        Assert.assertEquals(2, writer.droppedCount());
+
+        writer.start();
+        writer.stop();
+        Assert.assertEquals(Lists.newArrayList(0, 1, 2, 3), logs);
+    }
+
+    @Test
+    public void blockWhenFull() throws InterruptedException {
+        List<Integer> logs = Collections.synchronizedList(Lists.newArrayList());
+        AtomicInteger flushes = new AtomicInteger();
+        AsyncLogWriter<Integer> writer = new AsyncLogWriter<>("test-writer", 8, true, logs::add, flushes::incrementAndGet, System.err);
+        writer.start();
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    writer.add(j);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.stop();
+
+        Assert.assertEquals(4000, logs.size());
+        Assert.assertEquals(0, writer.droppedCount());
+        Assert.assertTrue(flushes.get() > 0);
+    }
+
+    @Test
+    public void reportFailureToErrorLogger() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsyncLogWriter<Integer> writer = new AsyncLogWriter<>("test-writer", 4, false, log -> {
+            throw new IllegalStateException("disk full");
+        }, () -> {
+        }, new PrintStream(output, true));
+        writer.start();
+        writer.add(1);
+        writer.stop();
+
+        Assert.assertTrue(output.toString().contains("disk full"));
+    }
+}
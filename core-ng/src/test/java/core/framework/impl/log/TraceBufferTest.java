@@ -0,0 +1,53 @@
+package core.framework.impl.log;
+
+import core.framework.api.util.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class TraceBufferTest {
+    @Test
+    public void addAndIterate() {
+        TraceBuffer buffer = new TraceBuffer();
+        for (int i = 0; i < 300; i++) {
+            buffer.add("logger", null, LogLevel.DEBUG, "message-{}", new Object[]{i}, null, null);
+        }
+        Assert.assertEquals(300, buffer.size());
+
+        List<String> messages = Lists.newArrayList();
+        for (LogEvent event : buffer) {
+            messages.add(event.message());
+        }
+        Assert.assertEquals(300, messages.size());
+        Assert.assertEquals("message-0", messages.get(0));
+        Assert.assertEquals("message-299", messages.get(299));
+    }
+
+    @Test
+    public void reuseEventsAfterClear() {
+        TraceBuffer buffer = new TraceBuffer();
+        LogEvent event = buffer.add("logger", null, LogLevel.DEBUG, "message1", null, null, null);
+        buffer.clear();
+        Assert.assertEquals(0, buffer.size());
+
+        LogEvent reusedEvent = buffer.add("logger", null, LogLevel.INFO, "message2", null, null, null);
+        Assert.assertSame(event, reusedEvent);
+        Assert.assertEquals("message2", reusedEvent.message());
+    }
+
+    @Test
+    public void skipDebugEventsIfNotCaptured() {
+        ActionLog log = new ActionLog("begin");
+        log.captureDebug = false;
+        int size = log.events.size();
+
+        Assert.assertNull(log.process("logger", null, LogLevel.DEBUG, "debug", null, null, null));
+        Assert.assertNotNull(log.process("logger", null, LogLevel.WARN, "warn", null, null, null));
+        Assert.assertEquals(size + 1, log.events.size());
+        Assert.assertEquals("WARN", log.result());
+    }
+}
@@ -0,0 +1,32 @@
+package core.framework.impl.log.queue;
+
+import core.framework.api.util.Lists;
+import core.framework.api.util.Types;
+import core.framework.impl.json.JSONReader;
+import core.framework.impl.json.JSONWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class MessageBatchTest {
+    @Test
+    public void encodeAndDecode() {
+        JSONWriter<StatMessage> writer = JSONWriter.of(StatMessage.class);
+        StatMessage message1 = new StatMessage();
+        message1.id = "1";
+        StatMessage message2 = new StatMessage();
+        message2.id = "2";
+
+        byte[] body = MessageBatch.encode(Lists.newArrayList(writer.toJSON(message1), writer.toJSON(message2)));
+
+        JSONReader<List<StatMessage>> reader = JSONReader.of(Types.list(StatMessage.class));
+        List<StatMessage> messages = reader.fromJSON(MessageBatch.decode(body));
+        Assert.assertEquals(2, messages.size());
+        Assert.assertEquals("1", messages.get(0).id);
+        Assert.assertEquals("2", messages.get(1).id);
+    }
+}
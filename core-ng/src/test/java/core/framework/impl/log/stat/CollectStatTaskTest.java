@@ -0,0 +1,50 @@
+package core.framework.impl.log.stat;
+
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import core.framework.impl.resource.Pool;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public class CollectStatTaskTest {
+    private CollectStatTask task;
+
+    @Before
+    public void createCollectStatTask() {
+        task = new CollectStatTask(null, Lists.newArrayList());
+    }
+
+    @Test
+    public void collectPoolStats() {
+        Pool<Object> pool = new Pool<>(Object::new, resource -> {
+        });
+        pool.name("test");
+        pool.returnItem(pool.borrowItem());
+
+        Map<String, Double> stats = Maps.newLinkedHashMap();
+        task.collectPoolStats(pool, stats);
+        Assert.assertEquals(1, stats.get("pool_test_total"), 0);
+        Assert.assertEquals(0, stats.get("pool_test_active"), 0);
+        Assert.assertEquals(1, stats.get("pool_test_checkout"), 0);
+        Assert.assertEquals(1, stats.get("pool_test_create"), 0);
+
+        pool.returnItem(pool.borrowItem());
+        task.collectPoolStats(pool, stats);
+        Assert.assertEquals(1, stats.get("pool_test_checkout"), 0);
+        Assert.assertEquals(0, stats.get("pool_test_create"), 0);
+    }
+
+    @Test
+    public void percentile() {
+        Assert.assertEquals(0, task.percentile(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 0}, 0.99));
+        Assert.assertEquals(1, task.percentile(new long[]{100, 0, 0, 0, 0, 0, 0, 0, 0}, 0.99));
+        Assert.assertEquals(10, task.percentile(new long[]{97, 1, 2, 0, 0, 0, 0, 0, 0}, 0.99));
+        Assert.assertEquals(5000, task.percentile(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 1}, 0.99));
+    }
+}
@@ -0,0 +1,53 @@
+package core.framework.impl.log.stat;
+
+import core.framework.api.util.Maps;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public class LatencyStatsTest {
+    @Test
+    public void bucketBounds() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 100, 1000, 123456789, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.index(value);
+            Assert.assertTrue(index < LatencyHistogram.BUCKETS);
+            long upperBound = LatencyHistogram.upperBound(index);
+            Assert.assertTrue(upperBound >= value);
+            Assert.assertTrue(upperBound - value <= value / 16);
+        }
+    }
+
+    @Test
+    public void collect() {
+        LatencyStats latencies = new LatencyStats("action_");
+        for (int i = 1; i <= 1000; i++) {
+            latencies.record("test", i * 1000);
+        }
+
+        Map<String, Double> stats = Maps.newLinkedHashMap();
+        latencies.collect(stats);
+        Assert.assertEquals(1000, stats.get("action_test_count"), 0);
+        Assert.assertEquals(500000, stats.get("action_test_p50"), 500000 / 16);
+        Assert.assertEquals(990000, stats.get("action_test_p99"), 990000 / 16);
+        Assert.assertEquals(999000, stats.get("action_test_p999"), 999000 / 16);
+
+        stats.clear();
+        latencies.collect(stats);
+        Assert.assertTrue("no stats if nothing recorded during interval", stats.isEmpty());
+    }
+
+    @Test
+    public void collectWithDottedName() {
+        LatencyStats latencies = new LatencyStats("action_");
+        latencies.record("web/get-favicon.ico", 1000);
+
+        Map<String, Double> stats = Maps.newLinkedHashMap();
+        latencies.collect(stats);
+        Assert.assertEquals(1, stats.get("action_web/get-favicon_ico_count"), 0);
+        Assert.assertTrue(stats.keySet().stream().noneMatch(key -> key.contains(".")));
+    }
+}
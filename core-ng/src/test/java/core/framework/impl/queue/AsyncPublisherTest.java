@@ -0,0 +1,85 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+public class AsyncPublisherTest {
+    private Channel channel;
+    private AsyncPublisher publisher;
+
+    @Before
+    public void createPublisher() {
+        channel = mock(Channel.class);
+        when(channel.isOpen()).thenReturn(true);
+        publisher = new AsyncPublisher("test-publisher", 10, () -> channel);
+        publisher.batchSize = 2;
+    }
+
+    @Test
+    public void confirmInBatch() throws Exception {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[3];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = publisher.publish("exchange", "key", new byte[0], new AMQP.BasicProperties());
+        }
+        publisher.start();
+        CompletableFuture.allOf(futures).get();
+        publisher.stop();
+
+        verify(channel).confirmSelect();
+        verify(channel, times(3)).basicPublish(eq("exchange"), eq("key"), any(AMQP.BasicProperties.class), any(byte[].class));
+        verify(channel, times(2)).waitForConfirmsOrDie(anyLong());
+    }
+
+    @Test
+    public void failBatchIfNotConfirmed() throws Exception {
+        doThrow(new TimeoutException()).when(channel).waitForConfirmsOrDie(anyLong());
+
+        CompletableFuture<Void> future = publisher.publish("exchange", "key", new byte[0], new AMQP.BasicProperties());
+        publisher.start();
+        try {
+            future.get();
+            Assert.fail("future should fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        publisher.stop();
+        verify(channel).close();
+    }
+
+    @Test
+    public void failIfStopped() throws IOException {
+        publisher.start();
+        publisher.stop();
+
+        CompletableFuture<Void> future = publisher.publish("exchange", "key", new byte[0], new AMQP.BasicProperties());
+        Assert.assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void failQueuedMessagesIfStoppedBeforeStart() {
+        CompletableFuture<Void> future = publisher.publish("exchange", "key", new byte[0], new AMQP.BasicProperties());
+        publisher.stop();   // publisher thread is not started, so message stays in queue
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+    }
+}
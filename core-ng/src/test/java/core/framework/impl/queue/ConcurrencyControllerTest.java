@@ -0,0 +1,49 @@
+package core.framework.impl.queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author neo
+ */
+public class ConcurrencyControllerTest {
+    private static final long START_TIME = 100_000_000_000L;
+
+    @Test
+    public void increaseWhenSaturated() {
+        ConcurrencyController controller = new ConcurrencyController(2, 4, 3);
+        controller.record(100);
+        Assert.assertEquals(4, controller.adjust(true, START_TIME));
+
+        controller.record(100);
+        Assert.assertEquals(4, controller.adjust(true, START_TIME + 1));     // capped by max
+    }
+
+    @Test
+    public void keepWhenNotSaturated() {
+        ConcurrencyController controller = new ConcurrencyController(2, 8, 4);
+        controller.record(100);
+        Assert.assertEquals(4, controller.adjust(false, START_TIME));
+        Assert.assertEquals(4, controller.adjust(true, START_TIME + 1));    // no message processed in window
+    }
+
+    @Test
+    public void decreaseWhenLatencyIncreases() {
+        ConcurrencyController controller = new ConcurrencyController(2, 16, 16);
+        controller.record(100);
+        Assert.assertEquals(16, controller.adjust(true, START_TIME));
+
+        controller.record(300);
+        Assert.assertEquals(12, controller.adjust(true, START_TIME + 1));
+
+        controller.record(300);
+        controller.record(500);
+        Assert.assertEquals(9, controller.adjust(true, START_TIME + 2));
+
+        for (int i = 0; i < 10; i++) {
+            controller.record(1000);
+            controller.adjust(true, START_TIME + 3 + i);
+        }
+        Assert.assertEquals(2, controller.concurrency());    // bounded by min
+    }
+}
@@ -0,0 +1,40 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.QueueingConsumer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class MessageBulkTest {
+    @Test
+    public void fillUpToMaxSize() {
+        MessageBulk bulk = new MessageBulk("type", null, 2, 1000);
+        Assert.assertEquals(-1, bulk.waitTime(0));
+
+        Assert.assertFalse(bulk.add(delivery(1), 100));
+        Assert.assertTrue(bulk.add(delivery(2), 200));
+
+        List<QueueingConsumer.Delivery> deliveries = bulk.take();
+        Assert.assertEquals(2, deliveries.size());
+        Assert.assertTrue(bulk.isEmpty());
+    }
+
+    @Test
+    public void waitTimeFromFirstDelivery() {
+        MessageBulk bulk = new MessageBulk("type", null, 10, 1000);
+        bulk.add(delivery(1), 100);
+        bulk.add(delivery(2), 600);
+        Assert.assertEquals(400, bulk.waitTime(700));
+        Assert.assertEquals(0, bulk.waitTime(1200));
+    }
+
+    private QueueingConsumer.Delivery delivery(long deliveryTag) {
+        return new QueueingConsumer.Delivery(new Envelope(deliveryTag, false, "", "queue"), new AMQP.BasicProperties(), new byte[0]);
+    }
+}
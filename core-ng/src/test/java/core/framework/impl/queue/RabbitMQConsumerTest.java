@@ -0,0 +1,94 @@
+package core.framework.impl.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.QueueingConsumer;
+import core.framework.api.util.Lists;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+public class RabbitMQConsumerTest {
+    private RabbitMQConsumer consumer;
+    private Channel channel;
+
+    @Before
+    public void createConsumer() {
+        channel = mock(Channel.class);
+        consumer = new RabbitMQConsumer(channel, "queue", 10, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void nextDeliveriesBoundedByBytes() throws InterruptedException {
+        for (int i = 1; i <= 5; i++) {
+            consumer.handleDelivery("tag", new Envelope(i, false, "", "queue"), new AMQP.BasicProperties(), new byte[100]);
+        }
+
+        Deque<QueueingConsumer.Delivery> deliveries = consumer.nextDeliveries(10, 250);
+        Assert.assertEquals(3, deliveries.size());
+        Assert.assertEquals(3, deliveries.getLast().getEnvelope().getDeliveryTag());
+
+        deliveries = consumer.nextDeliveries(10, 250);
+        Assert.assertEquals(2, deliveries.size());
+    }
+
+    @Test
+    public void nextDeliveriesReturnEmptyIfUnparked() throws InterruptedException {
+        Thread thread = Thread.currentThread();
+        new Thread(() -> {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.yield();
+            }
+            LockSupport.unpark(thread);
+        }).start();
+
+        Deque<QueueingConsumer.Delivery> deliveries = consumer.nextDeliveries(10, 250);
+        Assert.assertTrue(deliveries.isEmpty());
+    }
+
+    @Test
+    public void nextDeliveryWithTimeout() throws InterruptedException {
+        Assert.assertNull(consumer.nextDelivery(1_000_000));
+
+        consumer.handleDelivery("tag", new Envelope(1, false, "", "queue"), new AMQP.BasicProperties(), new byte[0]);
+        Assert.assertEquals(1, consumer.nextDelivery(0).getEnvelope().getDeliveryTag());
+    }
+
+    @Test
+    public void acknowledgeBulkCumulatively() throws IOException {
+        for (int i = 1; i <= 4; i++) {
+            consumer.handleDelivery("tag", new Envelope(i, false, "", "queue"), new AMQP.BasicProperties(), new byte[0]);
+        }
+        consumer.acknowledge(2);
+        consumer.acknowledge(Lists.newArrayList(1L, 3L));
+        verify(channel).basicAck(3, true);
+
+        consumer.acknowledge(Lists.newArrayList(4L));
+        verify(channel).basicAck(4, true);
+    }
+
+    @Test
+    public void acknowledgeBulkIndividuallyIfOthersInFlight() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            consumer.handleDelivery("tag", new Envelope(i, false, "", "queue"), new AMQP.BasicProperties(), new byte[0]);
+        }
+        consumer.acknowledge(Lists.newArrayList(1L, 3L));     // 2 is still being handled
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(3, false);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+}
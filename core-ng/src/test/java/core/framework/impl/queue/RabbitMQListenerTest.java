@@ -1,9 +1,35 @@
 package core.framework.impl.queue;
 
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import core.framework.api.queue.Message;
+import core.framework.api.queue.MessageHandler;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Strings;
+import core.framework.impl.log.LogManager;
 import org.junit.Before;
 import org.junit.Test;
 
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author neo
@@ -22,4 +48,125 @@ public class RabbitMQListenerTest {
 
         assertEquals("queue/test-queue", rabbitMQListener.action(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void partition() {
+        assertEquals(0, RabbitMQListener.partition(null, 4));
+        assertEquals(RabbitMQListener.partition("order-1", 4), RabbitMQListener.partition("order-1", 4));
+
+        String key = "polygenelubricants";  // hashCode is Integer.MIN_VALUE
+        int partition = RabbitMQListener.partition(key, 7);
+        assertTrue(partition >= 0 && partition < 7);
+    }
+
+    @Test
+    public void handleInPartitionedLanes() throws Exception {
+        assertNotEquals(RabbitMQListener.partition("A", 4), RabbitMQListener.partition("B", 4));
+
+        Channel channel = mock(Channel.class);
+        CountDownLatch consumerCreated = new CountDownLatch(1);
+        RabbitMQConsumer[] consumer = new RabbitMQConsumer[1];
+        RabbitMQ rabbitMQ = new RabbitMQ() {
+            @Override
+            public void publish(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+            }
+
+            @Override
+            public void publish(String exchange, String routingKey, List<byte[]> messages, AMQP.BasicProperties properties) {
+            }
+
+            @Override
+            public CompletableFuture<Void> publishAsync(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public RabbitMQConsumer consumer(String queue, int prefetchCount) {
+                consumer[0] = new RabbitMQConsumer(channel, queue, prefetchCount, Long.MAX_VALUE);
+                consumerCreated.countDown();
+                return consumer[0];
+            }
+        };
+
+        List<String> handled = Collections.synchronizedList(Lists.newArrayList());
+        CountDownLatch release = new CountDownLatch(1);
+        RabbitMQListener listener = new RabbitMQListener(rabbitMQ, "test-queue", new MessageValidator(), new LogManager());
+        listener.poolSize(1, 1);    // hot key must not take concurrency of other message types
+        listener.partitions(4);
+        listener.handle(OrderMessage.class, new OrderMessageHandler(handled, release), message -> message.key);
+        listener.handle(OtherMessage.class, new OtherMessageHandler(handled));
+        listener.start();
+        try {
+            assertTrue(consumerCreated.await(5, TimeUnit.SECONDS));
+            deliver(consumer[0], 1, "order", "{\"key\":\"A\",\"seq\":1}");     // blocks until released
+            deliver(consumer[0], 2, "order", "{\"key\":\"A\",\"seq\":2}");
+            deliver(consumer[0], 3, "order", "{\"key\":\"B\",\"seq\":1}");
+            deliver(consumer[0], 4, "other", "{}");
+
+            verify(channel, timeout(5000)).basicAck(3, false);
+            verify(channel, timeout(5000)).basicAck(4, false);
+            assertFalse("same key must wait for previous message", handled.contains("A-2"));
+            verify(channel, never()).basicAck(2, false);
+
+            release.countDown();
+            verify(channel, timeout(5000)).basicAck(1, false);
+            verify(channel, timeout(5000)).basicAck(2, false);
+            assertTrue(handled.indexOf("A-1") < handled.indexOf("A-2"));
+            verify(channel, never()).basicAck(anyLong(), eq(true));
+        } finally {
+            release.countDown();
+            listener.stop();
+        }
+    }
+
+    private void deliver(RabbitMQConsumer consumer, long deliveryTag, String type, String body) {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().type(type).build();
+        consumer.handleDelivery("tag", new Envelope(deliveryTag, false, "", "test-queue"), properties, Strings.bytes(body));
+    }
+
+    @Message(name = "order")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class OrderMessage {
+        @XmlElement(name = "key")
+        public String key;
+
+        @XmlElement(name = "seq")
+        public Integer seq;
+    }
+
+    @Message(name = "other")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class OtherMessage {
+        @XmlElement(name = "value")
+        public String value;
+    }
+
+    static class OrderMessageHandler implements MessageHandler<OrderMessage> {
+        private final List<String> handled;
+        private final CountDownLatch release;
+
+        OrderMessageHandler(List<String> handled, CountDownLatch release) {
+            this.handled = handled;
+            this.release = release;
+        }
+
+        @Override
+        public void handle(OrderMessage message) throws Exception {
+            if ("A".equals(message.key) && message.seq == 1) release.await(10, TimeUnit.SECONDS);
+            handled.add(message.key + "-" + message.seq);
+        }
+    }
+
+    static class OtherMessageHandler implements MessageHandler<OtherMessage> {
+        private final List<String> handled;
+
+        OtherMessageHandler(List<String> handled) {
+            this.handled = handled;
+        }
+
+        @Override
+        public void handle(OtherMessage message) {
+            handled.add("other");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package core.framework.impl.redis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class ConsistentHashTest {
+    @Test
+    public void node() {
+        ConsistentHash hash = new ConsistentHash(new String[]{"host1", "host2", "host3"});
+
+        int[] counts = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            String key = "key:" + i;
+            int node = hash.node(key);
+            assertEquals(node, hash.node(key));
+            counts[node]++;
+        }
+        for (int count : counts) {
+            assertTrue("keys should be distributed evenly, count=" + count, count > 7000 && count < 13000);
+        }
+    }
+
+    @Test
+    public void addNode() {
+        ConsistentHash hash = new ConsistentHash(new String[]{"host1", "host2", "host3"});
+        ConsistentHash newHash = new ConsistentHash(new String[]{"host1", "host2", "host3", "host4"});
+
+        int moved = 0;
+        for (int i = 0; i < 30000; i++) {
+            String key = "key:" + i;
+            int node = newHash.node(key);
+            if (node != hash.node(key)) {
+                assertEquals("keys should only move to new node", 3, node);
+                moved++;
+            }
+        }
+        assertTrue("about 1/4 keys should move, moved=" + moved, moved > 5000 && moved < 10000);
+    }
+}
@@ -0,0 +1,118 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.Maps;
+import core.framework.api.util.Strings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+public class RedisPipelineImplTest {
+    private RedisImpl redis1;
+    private RedisImpl redis2;
+    private RedisPipelineImpl pipeline;
+    private Map<RedisImpl, List<Consumer<Pipeline>>> executedCommands;
+
+    @Before
+    public void createRedisPipeline() {
+        redis1 = new RedisImpl();
+        redis2 = new RedisImpl();
+        pipeline = new RedisPipelineImpl(key -> key.startsWith("1") ? redis1 : redis2, commands -> executedCommands = commands);
+    }
+
+    @After
+    public void close() {
+        redis1.close();
+        redis2.close();
+    }
+
+    @Test
+    public void routeCommandsByKey() {
+        pipeline.set("1-key1", "value1");
+        pipeline.del("2-key1");
+        pipeline.expire("1-key2", Duration.ofSeconds(10));
+
+        assertEquals(2, pipeline.commands.get(redis1).size());
+        assertEquals(1, pipeline.commands.get(redis2).size());
+
+        Pipeline redisPipeline = mock(Pipeline.class);
+        pipeline.commands.get(redis1).forEach(command -> command.accept(redisPipeline));
+        verify(redisPipeline).set(aryEq(Strings.bytes("1-key1")), aryEq(Strings.bytes("value1")));
+        verify(redisPipeline).expire(aryEq(Strings.bytes("1-key2")), eq(10));
+    }
+
+    @Test
+    public void failInvalidArgumentBeforeQueue() {
+        pipeline.set("1-key1", "value1");
+        try {
+            pipeline.set("1-key2", null);
+            fail("null value should fail");
+        } catch (NullPointerException e) {
+            assertEquals("failed command must not be queued", 1, pipeline.commands.get(redis1).size());
+        }
+
+        Map<String, String> values = Maps.newHashMap();
+        values.put("field", null);
+        try {
+            pipeline.hmset("1-key3", values);
+            fail("null value should fail");
+        } catch (NullPointerException e) {
+            assertEquals("failed command must not be queued", 1, pipeline.commands.get(redis1).size());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readResultAfterExecute() {
+        Supplier<String> value = pipeline.get("1-key1");
+        try {
+            value.get();
+            fail("result is not available before execute");
+        } catch (Error e) {
+            assertTrue(e.getMessage().contains("not executed"));
+        }
+
+        Pipeline redisPipeline = mock(Pipeline.class);
+        Response<byte[]> response = mock(Response.class);
+        when(response.get()).thenReturn(Strings.bytes("value1"));
+        when(redisPipeline.get(aryEq(Strings.bytes("1-key1")))).thenReturn(response);
+        List<Consumer<Pipeline>> commands = pipeline.commands.get(redis1);
+        commands.forEach(command -> command.accept(redisPipeline));
+
+        assertEquals("value1", value.get());
+    }
+
+    @Test
+    public void execute() {
+        pipeline.set("1-key1", "value1");
+        pipeline.set("2-key1", "value1");
+        pipeline.execute();
+
+        assertEquals("all hosts are executed as one batch", 2, executedCommands.size());
+        try {
+            pipeline.execute();
+            fail("pipeline can only be executed once");
+        } catch (Error e) {
+            assertTrue(e.getMessage().contains("already executed"));
+        }
+    }
+}
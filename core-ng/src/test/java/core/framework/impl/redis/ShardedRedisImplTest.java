@@ -0,0 +1,69 @@
+package core.framework.impl.redis;
+
+import core.framework.api.util.Lists;
+import core.framework.api.util.Maps;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author neo
+ */
+public class ShardedRedisImplTest {
+    private ShardedRedisImpl redis;
+    private List<RedisImpl> shards;
+
+    @Before
+    public void createShardedRedis() {
+        redis = new ShardedRedisImpl("redis");
+        shards = redis.hosts("host1", "host2");
+    }
+
+    @After
+    public void close() {
+        redis.close();
+    }
+
+    @Test
+    public void executeConcurrentFanOutInParallel() throws InterruptedException {
+        int requests = 10;
+        CountDownLatch latch = new CountDownLatch(requests);  // operations on second host only finish if all requests run them at same time
+        List<Boolean> results = Lists.newArrayList();
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < requests; i++) {
+            Thread thread = new Thread(() -> {
+                Map<RedisImpl, String> shardValues = Maps.newLinkedHashMap();
+                shardValues.put(shards.get(0), "key1");
+                shardValues.put(shards.get(1), "key2");
+                List<Boolean> shardResults = redis.execute(shardValues, (shard, key) -> {
+                    if (shard == shards.get(0)) return true;
+                    latch.countDown();
+                    try {
+                        return latch.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new Error(e);
+                    }
+                });
+                synchronized (results) {
+                    results.addAll(shardResults);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(requests * 2, results.size());
+        assertTrue(results.stream().allMatch(result -> result));
+    }
+}
@@ -3,6 +3,15 @@ package core.framework.impl.resource;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * @author neo
  */
@@ -24,8 +33,225 @@ public class PoolTest {
         Assert.assertNotNull(item.resource);
         pool.returnItem(item);
 
-        Assert.assertEquals(1, pool.idleItems.size());
-        Assert.assertNotNull(pool.idleItems.getFirst().returnTime);
+        Assert.assertEquals(1, pool.idleCount());
+        Assert.assertTrue(item.returnTime > 0);
+    }
+
+    @Test
+    public void borrowReturnedItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close, 4);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);
+
+        Assert.assertSame(item, pool.borrowItem());
+        Assert.assertEquals(1, pool.totalCount());
+    }
+
+    @Test
+    public void stealFromOtherStripe() throws InterruptedException {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close, 4);
+        pool.size(1, 1);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        Thread thread = new Thread(() -> pool.returnItem(item));
+        thread.start();
+        thread.join();
+
+        Assert.assertSame(item, pool.borrowItem());
+    }
+
+    @Test
+    public void returnBrokenItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        item.broken = true;
+        pool.returnItem(item);
+
+        Assert.assertTrue(item.resource.closed);
+        Assert.assertEquals(0, pool.totalCount());
+        Assert.assertEquals(0, pool.idleCount());
+    }
+
+    @Test
+    public void waitNextAvailableItem() throws InterruptedException {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 1);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+            pool.returnItem(item);
+        });
+        thread.start();
+
+        Assert.assertSame(item, pool.borrowItem());
+        thread.join();
+    }
+
+    @Test
+    public void timeoutToWaitNextAvailableItem() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(1, 1);
+        pool.checkoutTimeout(Duration.ofMillis(10));
+
+        pool.borrowItem();
+        try {
+            pool.borrowItem();
+            Assert.fail("borrow should timeout");
+        } catch (PoolException e) {
+            Assert.assertEquals("POOL_TIME_OUT", e.errorCode());
+        }
+
+        Assert.assertEquals(1, pool.metrics.timeouts());
+        Assert.assertEquals(2, pool.metrics.checkouts());
+    }
+
+    @Test
+    public void metrics() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);
+        item = pool.borrowItem();
+        item.broken = true;
+        pool.returnItem(item);
+
+        Assert.assertEquals(2, pool.metrics.checkouts());
+        Assert.assertEquals(1, pool.metrics.creates());
+        Assert.assertEquals(1, pool.metrics.recycles());
+        Assert.assertEquals(0, pool.metrics.timeouts());
+        long[] histogram = pool.metrics.waitTimeHistogram();
+        Assert.assertEquals(PoolMetrics.WAIT_TIME_BUCKETS_IN_MS.length + 1, histogram.length);
+        Assert.assertEquals(2, histogram[0] + histogram[1]);   // creating test resource should be less than 5ms
+    }
+
+    @Test
+    public void borrowConcurrently() throws InterruptedException {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close, 4);
+        pool.size(1, 4);
+        int threads = 16;
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                try {
+                    for (int j = 0; j < 1000; j++) {
+                        PoolItem<TestResource> item = pool.borrowItem();
+                        pool.returnItem(item);
+                    }
+                } catch (Throwable e) {
+                    errors.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        Assert.assertEquals(0, errors.get());
+        Assert.assertTrue(pool.totalCount() <= 4);
+        Assert.assertEquals(pool.totalCount(), pool.idleCount());
+    }
+
+    @Test
+    public void refresh() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.size(2, 5);
+        pool.maxIdleTime(Duration.ZERO);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        pool.returnItem(item);
+        item.returnTime = item.returnTime - 1000;
+
+        pool.refresh();
+
+        Assert.assertTrue(item.resource.closed);
+        Assert.assertEquals(2, pool.totalCount());
+        Assert.assertEquals(2, pool.idleCount());
+    }
+
+    @Test
+    public void validateIdleItems() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.validator(resource -> !resource.closed);
+
+        PoolItem<TestResource> validItem = pool.borrowItem();
+        PoolItem<TestResource> invalidItem = pool.borrowItem();
+        pool.returnItem(validItem);
+        pool.returnItem(invalidItem);
+        long returnTime = validItem.returnTime;
+        invalidItem.resource.closed = true;
+
+        pool.validateIdleItems(-1);
+
+        Assert.assertEquals(1, pool.totalCount());
+        Assert.assertEquals(1, pool.idleCount());
+        Assert.assertEquals(returnTime, validItem.returnTime);
+        Assert.assertSame(validItem, pool.borrowItem());
+    }
+
+    @Test
+    public void throwCreationErrorIfMaintainInBackground() {
+        Pool<TestResource> pool = new Pool<>(() -> {
+            throw new UncheckedIOException(new IOException("connection refused"));
+        }, TestResource::close);
+        pool.name("test");
+        pool.size(0, 5);
+        pool.checkoutTimeout(Duration.ofSeconds(30));
+        pool.maintainInBackground(0);
+        pool.start();
+
+        long start = System.currentTimeMillis();
+        try {
+            pool.borrowItem();
+            Assert.fail("borrow should fail");
+        } catch (UncheckedIOException e) {
+            Assert.assertEquals("connection refused", e.getCause().getMessage());
+            Assert.assertTrue("should not wait until checkout timeout", System.currentTimeMillis() - start < 10000);
+            Assert.assertEquals(0, pool.totalCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void maintainInBackground() throws InterruptedException {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.name("test");
+        pool.size(2, 5);
+        pool.maintainInBackground(3);
+        pool.start();
+
+        for (int i = 0; i < 50 && pool.idleCount() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(3, pool.totalCount());
+        Assert.assertEquals(3, pool.idleCount());
+
+        pool.close();
+    }
+
+    @Test
+    public void borrowWithBackgroundCreation() {
+        Pool<TestResource> pool = new Pool<>(TestResource::new, TestResource::close);
+        pool.name("test");
+        pool.maintainInBackground(0);
+
+        PoolItem<TestResource> item = pool.borrowItem();
+        Assert.assertNotNull(item.resource);
+        Assert.assertEquals(1, pool.totalCount());
+
+        pool.returnItem(item);
+        pool.close();
+        Assert.assertTrue(item.resource.closed);
     }
 
     @Test
@@ -38,4 +264,4 @@ public class PoolTest {
         pool.close();
         Assert.assertTrue(item.resource.closed);
     }
-}
\ No newline at end of file
+}
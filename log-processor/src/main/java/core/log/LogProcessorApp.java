@@ -2,6 +2,8 @@ package core.log;
 
 import core.framework.api.App;
 import core.framework.api.module.SystemModule;
+import core.framework.impl.log.DefaultLoggerFactory;
+import core.framework.impl.log.LogManager;
 import core.framework.impl.log.queue.ActionLogMessage;
 import core.framework.impl.log.queue.StatMessage;
 import core.framework.impl.queue.RabbitMQ;
@@ -12,6 +14,7 @@ import core.log.job.CleanupOldIndexJob;
 import core.log.queue.BulkMessageProcessor;
 import core.log.service.ActionManager;
 import core.log.service.StatManager;
+import org.slf4j.LoggerFactory;
 
 import java.time.LocalTime;
 
@@ -34,12 +37,17 @@ public class LogProcessorApp extends App {
 
         RabbitMQ rabbitMQ = bean(RabbitMQ.class);
 
-        // our regular action logs are about 1.5M per 2000 messages
-        BulkMessageProcessor<ActionLogMessage> actionProcessor = new BulkMessageProcessor<>(rabbitMQ, "action-log-queue", ActionLogMessage.class, 3000, actionManager::index);
+        LogManager logManager = ((DefaultLoggerFactory) LoggerFactory.getILoggerFactory()).logManager;
+
+        // elasticsearch bulk is bounded by message count and decoded bytes, regular action logs are about 1.5M per 2000 messages,
+        // queue_* stats of processors are collected and forwarded with other stats only if sys.log.remoteLogHost is set, it points to own rabbitMQ in sys.properties
+        BulkMessageProcessor<ActionLogMessage> actionProcessor = new BulkMessageProcessor<>(rabbitMQ, "action-log-queue", ActionLogMessage.class, 3000, 5 * 1024 * 1024, 4, actionManager::index);
+        logManager.metrics.add(actionProcessor);
         onStartup(actionProcessor::start);
         onShutdown(actionProcessor::stop);
 
-        BulkMessageProcessor<StatMessage> statProcessor = new BulkMessageProcessor<>(rabbitMQ, "stat-queue", StatMessage.class, 1000, statManager::index);
+        BulkMessageProcessor<StatMessage> statProcessor = new BulkMessageProcessor<>(rabbitMQ, "stat-queue", StatMessage.class, 1000, 1024 * 1024, 1, statManager::index);
+        logManager.metrics.add(statProcessor);
         onStartup(statProcessor::start);
         onShutdown(statProcessor::stop);
 
@@ -3,41 +3,71 @@ package core.log.queue;
 import com.rabbitmq.client.QueueingConsumer;
 import core.framework.api.util.StopWatch;
 import core.framework.api.util.Threads;
+import core.framework.api.util.Types;
+import core.framework.impl.async.ThreadPools;
 import core.framework.impl.json.JSONReader;
+import core.framework.impl.log.queue.MessageBatch;
+import core.framework.impl.log.stat.Metrics;
 import core.framework.impl.queue.RabbitMQ;
 import core.framework.impl.queue.RabbitMQConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 /**
+ * consumer thread takes deliveries, workers decode and consume them concurrently,
+ * consumer thread acknowledges finished deliveries in order, as acknowledgement is cumulative
+ * <p>
+ * one delivery can be gzipped batch of many messages, so bulk passed to consumer is bounded by message count and decoded bytes,
+ * deliveries taken per task adapt to observed decoded/body bytes ratio, to make each task about one full bulk
+ *
  * @author neo
  */
-public class BulkMessageProcessor<T> {
+public class BulkMessageProcessor<T> implements Metrics {
     private final Logger logger = LoggerFactory.getLogger(BulkMessageProcessor.class);
     private final AtomicBoolean stop = new AtomicBoolean(false);
     private final String queue;
-    private final int bulkSize;
+    private final int maxBulkSize;
+    private final long maxBulkBytes;
+    private final int concurrency;
     private final Consumer<List<T>> consumer;
     private final Thread processorThread;
+    private final ExecutorService workers;
     private final JSONReader<T> reader;
+    private final JSONReader<List<T>> batchReader;
+    private final AtomicLong consumedMessages = new AtomicLong();
+    private final AtomicLong consumedBytes = new AtomicLong();
+    private final AtomicLong maxLagInMs = new AtomicLong();
+    private volatile double decodedBytesRatio = 1;     // decoded bytes per body byte, updated by workers, lost update doesn't matter
 
-    public BulkMessageProcessor(RabbitMQ rabbitMQ, String queue, Class<T> messageClass, int bulkSize, Consumer<List<T>> consumer) {
+    public BulkMessageProcessor(RabbitMQ rabbitMQ, String queue, Class<T> messageClass, int maxBulkSize, long maxBulkBytes, int concurrency, Consumer<List<T>> consumer) {
         this.queue = queue;
-        this.bulkSize = bulkSize;
+        this.maxBulkSize = maxBulkSize;
+        this.maxBulkBytes = maxBulkBytes;
+        this.concurrency = concurrency;
         this.consumer = consumer;
         reader = JSONReader.of(messageClass);
+        batchReader = JSONReader.of(Types.list(messageClass));
+        workers = ThreadPools.fixedThreadPool(concurrency, "message-processor-" + queue + "-");
         processorThread = new Thread(() -> {
             logger.info("message processor thread started, queue={}", queue);
             while (!stop.get()) {
-                try (RabbitMQConsumer queueConsumer = rabbitMQ.consumer(queue, bulkSize * 2)) {
+                try (RabbitMQConsumer queueConsumer = rabbitMQ.consumer(queue, maxBulkSize * (concurrency + 1))) {
                     process(queueConsumer);
                 } catch (Throwable e) {
                     if (!stop.get()) {  // if not initiated by shutdown, exception types can be ShutdownSignalException, InterruptedException
@@ -57,37 +87,118 @@ public class BulkMessageProcessor<T> {
     public void stop() {
         stop.set(true);
         processorThread.interrupt();
+        workers.shutdown();
     }
 
-    private void process(RabbitMQConsumer consumer) throws IOException, InterruptedException {
-        while (!stop.get()) {
-            Deque<QueueingConsumer.Delivery> deliveries = consumer.nextDeliveries(bulkSize);
-            try {
-                int messageSize = 0;
-                List<T> messages = new ArrayList<>(deliveries.size());
-                for (QueueingConsumer.Delivery delivery : deliveries) {
-                    byte[] body = delivery.getBody();
-                    messages.add(reader.fromJSON(body));
-                    messageSize += body.length;
+    private void process(RabbitMQConsumer consumer) throws Exception {
+        Deque<Bulk> bulks = new ArrayDeque<>(concurrency);
+        try {
+            while (!stop.get()) {
+                long maxBodyBytes = Math.max((long) (maxBulkBytes / decodedBytesRatio), 1);
+                Deque<QueueingConsumer.Delivery> deliveries = consumer.nextDeliveries(maxBulkSize, maxBodyBytes);
+                if (!deliveries.isEmpty()) {
+                    CompletableFuture<Void> result = CompletableFuture.supplyAsync(() -> consume(deliveries), workers);
+                    result.whenComplete((value, error) -> LockSupport.unpark(processorThread));    // wake up processor thread to acknowledge, after result is done
+                    bulks.add(new Bulk(deliveries, result));
+                }
+                while (!bulks.isEmpty() && (bulks.size() >= concurrency || bulks.peek().result.isDone())) {
+                    Bulk bulk = bulks.poll();
+                    bulk.result.get();  // wait for oldest bulk if reached max concurrency
+                    consumer.acknowledgeAll(bulk.lastDeliveryTag);
+                    recordLag(bulk.timestamp);
                 }
-                consume(messages, messageSize);
-                consumer.acknowledgeAll(deliveries.getLast().getEnvelope().getDeliveryTag());
-            } catch (Throwable e) {
-                // clear message on error, otherwise MQ will not send new messages due to prefetch value,
-                // according to AMQP, acknowledge with deliveryTag=0 will acknowledge all outstanding messages
-                consumer.acknowledgeAll(0);
-                throw e;
             }
+        } catch (ExecutionException e) {
+            // clear message on error, otherwise MQ will not send new messages due to prefetch value,
+            // according to AMQP, acknowledge with deliveryTag=0 will acknowledge all outstanding messages
+            waitForBulks(bulks);
+            consumer.acknowledgeAll(0);
+            throw e;
         }
     }
 
-    private void consume(List<T> messages, int messageSize) {
+    private void waitForBulks(Deque<Bulk> bulks) throws InterruptedException {
+        for (Bulk bulk : bulks) {
+            try {
+                bulk.result.get();
+            } catch (ExecutionException e) {
+                logger.warn("failed to process message, queue={}", queue, e.getCause());
+            }
+        }
+    }
+
+    private Void consume(Deque<QueueingConsumer.Delivery> deliveries) {
         StopWatch watch = new StopWatch();
+        int messageCount = 0;
+        long bodySize = 0;
+        long decodedSize = 0;
+        int bulkCount = 0;
         try {
-            consumer.accept(messages);
+            List<T> bulk = new ArrayList<>();
+            long bulkBytes = 0;
+            for (QueueingConsumer.Delivery delivery : deliveries) {
+                byte[] body = delivery.getBody();
+                byte[] json = body;
+                List<T> messages;
+                if (MessageBatch.CONTENT_ENCODING.equals(delivery.getProperties().getContentEncoding())) {
+                    json = MessageBatch.decode(body);
+                    messages = batchReader.fromJSON(json);  // one delivery contains multiple messages
+                } else {
+                    messages = Collections.singletonList(reader.fromJSON(body));
+                }
+                bodySize += body.length;
+                decodedSize += json.length;
+                long messageBytes = json.length / Math.max(messages.size(), 1);     // approximate as messages of batch are not measured one by one
+                for (T message : messages) {
+                    if (!bulk.isEmpty() && (bulk.size() >= maxBulkSize || bulkBytes + messageBytes > maxBulkBytes)) {
+                        consumer.accept(bulk);
+                        bulkCount++;
+                        bulk = new ArrayList<>();
+                        bulkBytes = 0;
+                    }
+                    bulk.add(message);
+                    bulkBytes += messageBytes;
+                }
+                messageCount += messages.size();
+            }
+            if (!bulk.isEmpty()) {
+                consumer.accept(bulk);
+                bulkCount++;
+            }
+            if (bodySize > 0) decodedBytesRatio = decodedBytesRatio * 0.7 + (double) decodedSize / bodySize * 0.3;
+            consumedMessages.addAndGet(messageCount);
+            consumedBytes.addAndGet(bodySize);
+            return null;
         } finally {
             long elapsedTime = watch.elapsedTime();
-            logger.info("consume messages, queue={}, size={}, messageSize={}, elapsedTime={}", queue, messages.size(), messageSize, elapsedTime);
+            logger.info("consume messages, queue={}, size={}, bulks={}, bodySize={}, decodedSize={}, elapsedTime={}", queue, messageCount, bulkCount, bodySize, decodedSize, elapsedTime);
+        }
+    }
+
+    private void recordLag(Date timestamp) {
+        if (timestamp == null) return;  // published by client without timestamp
+        long lag = System.currentTimeMillis() - timestamp.getTime();
+        maxLagInMs.accumulateAndGet(lag, Math::max);
+    }
+
+    @Override
+    public void collect(Map<String, Double> stats) {
+        String prefix = "queue_" + queue + "_";
+        stats.put(prefix + "consumed", (double) consumedMessages.getAndSet(0));
+        stats.put(prefix + "consumed_bytes", (double) consumedBytes.getAndSet(0));
+        stats.put(prefix + "max_lag", (double) maxLagInMs.getAndSet(0));
+    }
+
+    private static final class Bulk {
+        final long lastDeliveryTag;
+        final Date timestamp;
+        final CompletableFuture<Void> result;
+
+        Bulk(Deque<QueueingConsumer.Delivery> deliveries, CompletableFuture<Void> result) {
+            QueueingConsumer.Delivery last = deliveries.getLast();
+            lastDeliveryTag = last.getEnvelope().getDeliveryTag();
+            timestamp = deliveries.getFirst().getProperties().getTimestamp();
+            this.result = result;
         }
     }
 }
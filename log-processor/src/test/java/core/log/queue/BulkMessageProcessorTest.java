@@ -0,0 +1,97 @@
+package core.log.queue;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import core.framework.api.util.Charsets;
+import core.framework.api.util.Lists;
+import core.framework.api.util.Strings;
+import core.framework.impl.log.queue.MessageBatch;
+import core.framework.impl.log.queue.StatMessage;
+import core.framework.impl.queue.RabbitMQ;
+import core.framework.impl.queue.RabbitMQConsumer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+public class BulkMessageProcessorTest {
+    private final Channel channel = mock(Channel.class);
+    private final CountDownLatch consumerCreated = new CountDownLatch(1);
+    private final RabbitMQConsumer[] consumer = new RabbitMQConsumer[1];
+    private RabbitMQ rabbitMQ;
+
+    @Before
+    public void createRabbitMQ() {
+        rabbitMQ = new RabbitMQ() {
+            @Override
+            public void publish(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+            }
+
+            @Override
+            public void publish(String exchange, String routingKey, List<byte[]> messages, AMQP.BasicProperties properties) {
+            }
+
+            @Override
+            public CompletableFuture<Void> publishAsync(String exchange, String routingKey, byte[] message, AMQP.BasicProperties properties) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public RabbitMQConsumer consumer(String queue, int prefetchCount) {
+                consumer[0] = new RabbitMQConsumer(channel, queue, prefetchCount, Long.MAX_VALUE);
+                consumerCreated.countDown();
+                return consumer[0];
+            }
+        };
+    }
+
+    @Test
+    public void acknowledgeLastBulkWithoutFurtherDeliveries() throws Exception {
+        BulkMessageProcessor<StatMessage> processor = new BulkMessageProcessor<>(rabbitMQ, "queue", StatMessage.class, 10, 1024, 2, messages -> {
+            try {
+                Thread.sleep(50);   // let processor thread park before bulk finishes
+            } catch (InterruptedException e) {
+                throw new Error(e);
+            }
+        });
+        processor.start();
+        assertTrue(consumerCreated.await(5, TimeUnit.SECONDS));
+
+        consumer[0].handleDelivery("tag", new Envelope(1, false, "", "queue"), new AMQP.BasicProperties(), "{}".getBytes(Charsets.UTF_8));
+        verify(channel, timeout(5000)).basicAck(1, true);
+        processor.stop();
+    }
+
+    @Test
+    public void splitBatchDeliveryIntoBulks() throws Exception {
+        List<Integer> bulkSizes = Collections.synchronizedList(Lists.newArrayList());
+        BulkMessageProcessor<StatMessage> processor = new BulkMessageProcessor<>(rabbitMQ, "queue", StatMessage.class, 2, 1024 * 1024, 1, messages -> bulkSizes.add(messages.size()));
+        processor.start();
+        assertTrue(consumerCreated.await(5, TimeUnit.SECONDS));
+
+        List<byte[]> messages = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            messages.add(Strings.bytes("{\"id\":\"" + i + "\"}"));
+        }
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().contentEncoding(MessageBatch.CONTENT_ENCODING).build();
+        consumer[0].handleDelivery("tag", new Envelope(1, false, "", "queue"), properties, MessageBatch.encode(messages));
+        verify(channel, timeout(5000)).basicAck(1, true);
+        processor.stop();
+
+        assertEquals(Lists.newArrayList(2, 2, 1), bulkSizes);
+    }
+}